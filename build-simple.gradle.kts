@@ -65,7 +65,23 @@ tasks {
     }
     
     test {
-        useJUnitPlatform()
+        useJUnitPlatform {
+            // Timing comparisons are slow and noisy; run them with ./gradlew benchmark
+            excludeTags("benchmark")
+        }
+        testLogging {
+            events("passed", "skipped", "failed")
+        }
+    }
+    
+    register<Test>("benchmark") {
+        description = "Runs the tests tagged as benchmarks."
+        group = "verification"
+        testClassesDirs = sourceSets["test"].output.classesDirs
+        classpath = sourceSets["test"].runtimeClasspath
+        useJUnitPlatform {
+            includeTags("benchmark")
+        }
         testLogging {
             events("passed", "skipped", "failed")
         }
@@ -1,6 +1,13 @@
 package com.worldprotect;
 
 import com.worldprotect.area.AreaManager;
+import com.worldprotect.area.SpatialIndex;
+import com.worldprotect.flags.FlagDefaults;
+import com.worldprotect.listener.BypassCache;
+import com.worldprotect.listener.EnvironmentListener;
+import com.worldprotect.listener.FlagHandlerRegistry;
+import com.worldprotect.listener.MovementTracker;
+import com.worldprotect.listener.SectionVerdictCache;
 import com.worldprotect.selection.SelectionManager;
 import com.worldprotect.storage.StorageManager;
 import com.worldprotect.storage.YamlStorageManager;
@@ -27,6 +34,9 @@ public class WorldProtectPlugin extends JavaPlugin {
     private AreaManager areaManager;
     private SelectionManager selectionManager;
     private StorageManager storageManager;
+    private BypassCache bypassCache;
+    private SectionVerdictCache sectionVerdicts;
+    private FlagHandlerRegistry flagHandlers;
     
     @Override
     public void onLoad() {
@@ -38,8 +48,12 @@ public class WorldProtectPlugin extends JavaPlugin {
         
         // Initialize components synchronously (lightweight initialization)
         // Heavy async initialization will happen in onEnable()
-        this.areaManager = new AreaManager();
+        this.areaManager = createAreaManager();
         this.selectionManager = new SelectionManager();
+        this.bypassCache = new BypassCache(getConfig().getBoolean("regions.bypass-requires-toggle", false));
+        this.sectionVerdicts = new SectionVerdictCache(areaManager,
+            getConfig().getInt("performance.section-cache-size", 4096));
+        areaManager.addChangeListener(sectionVerdicts);
         
         // Initialize storage manager (but don't load data yet)
         File dataFolder = new File(getDataFolder(), "areas");
@@ -67,6 +81,9 @@ public class WorldProtectPlugin extends JavaPlugin {
             // Start metrics
             startMetrics();
             
+            // Compile flag defaults before any area is checked
+            loadFlagDefaults();
+            
             // Load data asynchronously
             loadDataAsync();
             
@@ -109,7 +126,7 @@ public class WorldProtectPlugin extends JavaPlugin {
      */
     private void initializeComponents() {
         // Initialize managers
-        this.areaManager = new AreaManager();
+        this.areaManager = createAreaManager();
         this.selectionManager = new SelectionManager();
         
         // Initialize storage
@@ -122,6 +139,39 @@ public class WorldProtectPlugin extends JavaPlugin {
         getLogger().info("Components initialized");
     }
     
+    /**
+     * Create the area manager using the configured spatial index.
+     */
+    @NotNull
+    private AreaManager createAreaManager() {
+        SpatialIndex.Type indexType = SpatialIndex.Type.fromConfig(
+            getConfig().getString("performance.spatial-index-type", "grid"));
+        int gridCellSize = getConfig().getInt("performance.grid-cell-size", 16);
+        int rasterMinVertices = getConfig().getInt("performance.polygon-raster-min-vertices", 64);
+        int maxAreaSets = getConfig().getInt("performance.region-cache-size", 1000);
+        int maxCachedSubjects = getConfig().getInt("performance.flag-cache-size", 5000);
+        int chunkCacheSize = getConfig().getInt("performance.chunk-cache-size", 4096);
+        return new AreaManager(indexType, gridCellSize, rasterMinVertices, maxAreaSets, maxCachedSubjects,
+            chunkCacheSize);
+    }
+    
+    /**
+     * Compile the configured flag defaults and install them. Called on enable and reload.
+     */
+    public void loadFlagDefaults() {
+        areaManager.setFlagDefaults(FlagDefaults.compile(getConfig(), getLogger()));
+        sectionVerdicts.clear();
+    }
+    
+    /**
+     * Re-read the bypass settings and re-check every online player's bypass
+     * permission. Called on reload.
+     */
+    public void refreshBypass() {
+        bypassCache.setRequiresToggle(getConfig().getBoolean("regions.bypass-requires-toggle", false));
+        bypassCache.refreshAll(getServer().getOnlinePlayers());
+    }
+    
     /**
      * Register plugin commands.
      */
@@ -142,9 +192,16 @@ public class WorldProtectPlugin extends JavaPlugin {
         getServer().getPluginManager().registerEvents(
             new com.worldprotect.listener.SelectionListener(this), this);
         
-        // Register protection listener
-        getServer().getPluginManager().registerEvents(
-            new com.worldprotect.listener.ProtectionListener(this), this);
+        // Register bypass cache before protection so joins are cached first
+        getServer().getPluginManager().registerEvents(bypassCache, this);
+        getServer().getPluginManager().registerEvents(sectionVerdicts, this);
+        
+        // Protection handlers are only registered while an area or default uses their flag
+        this.flagHandlers = new FlagHandlerRegistry(this, areaManager.getFlagUsage());
+        new com.worldprotect.listener.ProtectionListener(this).registerWith(flagHandlers);
+        new EnvironmentListener(this).registerWith(flagHandlers);
+        new MovementTracker(this).registerWith(flagHandlers);
+        flagHandlers.start();
         
         getLogger().info("Event listeners registered");
     }
@@ -158,6 +215,14 @@ public class WorldProtectPlugin extends JavaPlugin {
             selectionManager.cleanupOfflineSelections();
         }, 20L * 60L * 5L, 20L * 60L * 5L); // 5 minutes
         
+        // Bukkit has no permission change event, so re-check bypass periodically
+        long bypassInterval = 20L * getConfig().getInt("performance.bypass-refresh-interval", 30);
+        if (bypassInterval > 0) {
+            getServer().getScheduler().runTaskTimer(this, () -> {
+                bypassCache.refreshAll(getServer().getOnlinePlayers());
+            }, bypassInterval, bypassInterval);
+        }
+        
         getLogger().info("Scheduled tasks started");
     }
     
@@ -192,9 +257,8 @@ public class WorldProtectPlugin extends JavaPlugin {
         getLogger().info("Loading area data...");
         
         storageManager.loadAllAreas().thenAccept(areas -> {
-            for (com.worldprotect.area.Area area : areas) {
-                areaManager.addArea(area);
-            }
+            // Add in bulk so each world's spatial index is built in one pass
+            areaManager.addAreas(areas);
             getLogger().info("Loaded " + areas.size() + " areas");
         }).exceptionally(throwable -> {
             getLogger().severe("Failed to load area data: " + throwable.getMessage());
@@ -226,6 +290,9 @@ public class WorldProtectPlugin extends JavaPlugin {
         for (com.worldprotect.area.Area area : areaManager.getAllAreas()) {
             storageManager.saveArea(area).join();
         }
+        for (com.worldprotect.area.Area region : areaManager.getFallbackRegions()) {
+            storageManager.saveArea(region).join();
+        }
         
         getLogger().info("Data saved");
     }
@@ -284,6 +351,36 @@ public class WorldProtectPlugin extends JavaPlugin {
         return storageManager;
     }
     
+    /**
+     * Get the bypass permission cache.
+     * 
+     * @return the bypass cache
+     */
+    @NotNull
+    public BypassCache getBypassCache() {
+        return bypassCache;
+    }
+    
+    /**
+     * Get the per-section cache of player-less flag verdicts.
+     * 
+     * @return the section verdict cache
+     */
+    @NotNull
+    public SectionVerdictCache getSectionVerdicts() {
+        return sectionVerdicts;
+    }
+    
+    /**
+     * Get the registry of handlers that follow flag usage.
+     * 
+     * @return the flag handler registry
+     */
+    @NotNull
+    public FlagHandlerRegistry getFlagHandlers() {
+        return flagHandlers;
+    }
+    
     /**
      * Check if debug mode is enabled.
      * 
@@ -4,6 +4,8 @@ import com.worldprotect.flags.Flag;
 import com.worldprotect.flags.FlagResolver;
 import com.worldprotect.flags.GroupFlag;
 import com.worldprotect.selection.Selection;
+import com.worldprotect.util.PolygonRaster;
+import com.worldprotect.util.ShapeKernel;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
@@ -15,7 +17,23 @@ import java.util.*;
 
 public class Area implements ConfigurationSerializable {
     
+    /**
+     * Resolution order for overlapping areas: lower priority number first,
+     * then lexicographic name for deterministic tie-breaking.
+     */
+    public static final Comparator<Area> RESOLUTION_ORDER = Comparator
+        .comparingInt(Area::getPriority)
+        .thenComparing(Area::getName);
+    
+    /** Name of the global fallback region. */
+    public static final String GLOBAL_REGION_NAME = "global";
+    /** World name of the global fallback region, which covers every world. */
+    public static final String ALL_WORLDS = "*";
+    // Fallback regions have no geometry; their bounds span the world border
+    private static final double FALLBACK_EXTENT = 30_000_000;
+    
     private final String name;
+    private final Scope scope;
     private final String worldName;
     private final int priority;
     private final Shape shape;
@@ -23,19 +41,59 @@ public class Area implements ConfigurationSerializable {
     private final int borderThickness;
     private final Set<UUID> owners;
     private final Set<UUID> members;
-    private final Map<Flag, Map<FlagResolver.SubjectGroup, Boolean>> flagValues;
-    private final Map<GroupFlag, Map<FlagResolver.SubjectGroup, Boolean>> groupFlagValues;
+    // Flag values as bit masks per subject group, indexed by ordinal: bit f of flagSet is set
+    // when Flag f has an explicit value, and the same bit of flagValue holds that value
+    private final long[] flagSet = new long[GROUPS];
+    private final long[] flagValue = new long[GROUPS];
+    private final int[] groupFlagSet = new int[GROUPS];
+    private final int[] groupFlagValue = new int[GROUPS];
+    // Flags set to "notify", such as entry and leave, indexed by ordinal
+    private volatile long notifyFlags;
+    // Atomic flags covered by a group flag value, compiled from the group masks
+    private final long[] inheritedSet = new long[GROUPS];
+    private final long[] inheritedValue = new long[GROUPS];
     private final Location minBounds;
     private final Location maxBounds;
+    // Compiled geometry so containment checks don't clone Locations
+    private final ShapeKernel kernel;
+    // Optional column bitmap for large polygons, attached by AreaManager
+    private volatile PolygonRaster raster;
     private final List<Location> polygonPoints; // For POLYGON shape only
     private final long createdAt;
+    // Bumped on every flag change so cached flag tables know to rebuild
+    private volatile long flagVersion;
+    // Bumped on every owner/member change so cached subject groups know to recompute
+    private volatile long membershipVersion;
+    // Manager to notify of changes, set while the area is registered
+    private volatile AreaManager manager;
+    private volatile AreaSet singletonSet;
+    
+    private static final FlagResolver.SubjectGroup[] SUBJECT_GROUPS = FlagResolver.SubjectGroup.values();
+    private static final int GROUPS = SUBJECT_GROUPS.length;
+    private static final Flag[] FLAGS = Flag.values();
+    private static final GroupFlag[] GROUP_FLAGS = GroupFlag.values();
+    
+    static {
+        // Flag masks, here and in EffectiveFlags, are single longs/ints per subject group
+        if (FLAGS.length > Long.SIZE || GROUP_FLAGS.length > Integer.SIZE) {
+            throw new IllegalStateException("Too many flags for area bit masks");
+        }
+    }
     
     public enum Shape { SQUARE, CIRCLE, TRIANGLE, HEXAGON, POLYGON }
+    
+    /**
+     * What an area covers. Only {@link #AREA}s have geometry; world and global
+     * regions are fallbacks that apply everywhere in their scope, below every area.
+     */
+    public enum Scope { AREA, WORLD, GLOBAL }
+
     public enum Style { FULL, BORDER }
     
     public Area(@NotNull String name, @NotNull Selection selection, int priority,
                 @NotNull Shape shape, @NotNull Style style, int borderThickness) {
         this.name = name;
+        this.scope = Scope.AREA;
         this.worldName = selection.getWorldName();
         this.priority = Math.max(1, Math.min(50, priority));
         this.shape = shape;
@@ -44,8 +102,6 @@ public class Area implements ConfigurationSerializable {
         this.owners = new HashSet<>();
         this.owners.add(selection.getOwnerId());
         this.members = new HashSet<>();
-        this.flagValues = new HashMap<>();
-        this.groupFlagValues = new HashMap<>();
         
         // Copy polygon points from selection if this is a polygon shape
         if (shape == Shape.POLYGON) {
@@ -64,14 +120,44 @@ public class Area implements ConfigurationSerializable {
         }
         this.minBounds = min.clone();
         this.maxBounds = max.clone();
+        this.kernel = new ShapeKernel(worldName, shape, min.getX(), min.getY(), min.getZ(),
+            max.getX(), max.getY(), max.getZ(), polygonPoints, style, this.borderThickness);
+        this.createdAt = System.currentTimeMillis();
+    }
+    
+    /**
+     * Create an empty fallback region.
+     * @param scope {@link Scope#WORLD} or {@link Scope#GLOBAL}
+     * @param worldName the world of a world region, ignored for the global region
+     */
+    Area(@NotNull Scope scope, @Nullable String worldName) {
+        if (scope == Scope.AREA) {
+            throw new IllegalArgumentException("Areas need a selection");
+        }
+        this.scope = scope;
+        this.worldName = scope == Scope.GLOBAL ? ALL_WORLDS : Objects.requireNonNull(worldName, "worldName");
+        this.name = scope == Scope.GLOBAL ? GLOBAL_REGION_NAME : worldRegionName(this.worldName);
+        this.priority = fallbackPriority(scope);
+        this.shape = Shape.SQUARE;
+        this.style = Style.FULL;
+        this.borderThickness = 1;
+        this.owners = new HashSet<>();
+        this.members = new HashSet<>();
+        this.polygonPoints = new ArrayList<>();
+        World world = Bukkit.getWorld(this.worldName);
+        this.minBounds = new Location(world, -FALLBACK_EXTENT, -FALLBACK_EXTENT, -FALLBACK_EXTENT);
+        this.maxBounds = new Location(world, FALLBACK_EXTENT, FALLBACK_EXTENT, FALLBACK_EXTENT);
+        this.kernel = fallbackKernel(this.worldName);
         this.createdAt = System.currentTimeMillis();
     }
     
     @SuppressWarnings("unchecked")
     public Area(@NotNull Map<String, Object> data) {
+        Object scopeData = data.get("scope");
+        this.scope = scopeData != null ? Scope.valueOf(scopeData.toString()) : Scope.AREA;
         this.name = (String) data.get("name");
         this.worldName = (String) data.get("worldName");
-        this.priority = ((Number) data.get("priority")).intValue();
+        this.priority = scope == Scope.AREA ? ((Number) data.get("priority")).intValue() : fallbackPriority(scope);
         this.shape = Shape.valueOf((String) data.get("shape"));
         this.style = Style.valueOf((String) data.get("style"));
         this.borderThickness = ((Number) data.get("borderThickness")).intValue();
@@ -93,42 +179,50 @@ public class Area implements ConfigurationSerializable {
             }
         }
         
-        this.flagValues = new HashMap<>();
         Map<String, Map<String, Boolean>> flagData = (Map<String, Map<String, Boolean>>) data.get("flagValues");
         if (flagData != null) {
             for (Map.Entry<String, Map<String, Boolean>> entry : flagData.entrySet()) {
                 Flag flag = Flag.byName(entry.getKey());
                 if (flag != null) {
-                    Map<FlagResolver.SubjectGroup, Boolean> subjectMap = new HashMap<>();
                     Map<String, Boolean> subjectData = entry.getValue();
                     for (Map.Entry<String, Boolean> subjectEntry : subjectData.entrySet()) {
                         try {
                             FlagResolver.SubjectGroup subject = FlagResolver.SubjectGroup.valueOf(
                                 subjectEntry.getKey().toUpperCase());
-                            subjectMap.put(subject, subjectEntry.getValue());
+                            if (subjectEntry.getValue() != null) {
+                                setFlagValue(flag, subject, subjectEntry.getValue());
+                            }
                         } catch (IllegalArgumentException ignored) {}
                     }
-                    flagValues.put(flag, subjectMap);
                 }
             }
         }
         
-        this.groupFlagValues = new HashMap<>();
         Map<String, Map<String, Boolean>> groupFlagData = (Map<String, Map<String, Boolean>>) data.get("groupFlagValues");
         if (groupFlagData != null) {
             for (Map.Entry<String, Map<String, Boolean>> entry : groupFlagData.entrySet()) {
                 GroupFlag groupFlag = GroupFlag.byName(entry.getKey());
                 if (groupFlag != null) {
-                    Map<FlagResolver.SubjectGroup, Boolean> subjectMap = new HashMap<>();
                     Map<String, Boolean> subjectData = entry.getValue();
                     for (Map.Entry<String, Boolean> subjectEntry : subjectData.entrySet()) {
                         try {
                             FlagResolver.SubjectGroup subject = FlagResolver.SubjectGroup.valueOf(
                                 subjectEntry.getKey().toUpperCase());
-                            subjectMap.put(subject, subjectEntry.getValue());
+                            if (subjectEntry.getValue() != null) {
+                                setGroupFlagValue(groupFlag, subject, subjectEntry.getValue());
+                            }
                         } catch (IllegalArgumentException ignored) {}
                     }
-                    groupFlagValues.put(groupFlag, subjectMap);
+                }
+            }
+        }
+        
+        List<String> notifyData = (List<String>) data.get("notifyFlags");
+        if (notifyData != null) {
+            for (String flagName : notifyData) {
+                Flag flag = Flag.byName(flagName);
+                if (flag != null) {
+                    notifyFlags |= 1L << flag.ordinal();
                 }
             }
         }
@@ -152,6 +246,12 @@ public class Area implements ConfigurationSerializable {
         Map<String, Object> minData = (Map<String, Object>) data.get("minBounds");
         Map<String, Object> maxData = (Map<String, Object>) data.get("maxBounds");
         World world = Bukkit.getWorld(worldName);
+        if (scope != Scope.AREA) {
+            this.minBounds = new Location(world, -FALLBACK_EXTENT, -FALLBACK_EXTENT, -FALLBACK_EXTENT);
+            this.maxBounds = new Location(world, FALLBACK_EXTENT, FALLBACK_EXTENT, FALLBACK_EXTENT);
+            this.kernel = fallbackKernel(worldName);
+            return;
+        }
         if (world != null && minData != null && maxData != null) {
             this.minBounds = new Location(world,
                 ((Number) minData.get("x")).doubleValue(),
@@ -165,9 +265,14 @@ public class Area implements ConfigurationSerializable {
             this.minBounds = new Location(world != null ? world : Bukkit.getWorlds().get(0), 0, 0, 0);
             this.maxBounds = new Location(world != null ? world : Bukkit.getWorlds().get(0), 0, 0, 0);
         }
+        this.kernel = new ShapeKernel(worldName, shape, minBounds.getX(), minBounds.getY(), minBounds.getZ(),
+            maxBounds.getX(), maxBounds.getY(), maxBounds.getZ(), polygonPoints, style, borderThickness);
     }
     
     @NotNull public String getName() { return name; }
+    @NotNull public Scope getScope() { return scope; }
+    /** @return true for world and global regions, which have no geometry */
+    public boolean isFallback() { return scope != Scope.AREA; }
     @NotNull public String getWorldName() { return worldName; }
     @Nullable public World getWorld() { return Bukkit.getWorld(worldName); }
     public int getPriority() { return priority; }
@@ -180,6 +285,15 @@ public class Area implements ConfigurationSerializable {
     @NotNull public Location getMinBounds() { return minBounds.clone(); }
     @NotNull public Location getMaxBounds() { return maxBounds.clone(); }
     @NotNull public List<Location> getPolygonPoints() { return Collections.unmodifiableList(polygonPoints); }
+    @NotNull public ShapeKernel getKernel() { return kernel; }
+    @Nullable public PolygonRaster getRaster() { return raster; }
+    void setRaster(@Nullable PolygonRaster raster) { this.raster = raster; }
+    public double getMinX() { return kernel.getMinX(); }
+    public double getMinY() { return kernel.getMinY(); }
+    public double getMinZ() { return kernel.getMinZ(); }
+    public double getMaxX() { return kernel.getMaxX(); }
+    public double getMaxY() { return kernel.getMaxY(); }
+    public double getMaxZ() { return kernel.getMaxZ(); }
     
     @NotNull
     public Location getCenter() {
@@ -197,19 +311,119 @@ public class Area implements ConfigurationSerializable {
     }
     
     public boolean contains(@NotNull Location location) {
+        if (scope == Scope.GLOBAL) {
+            return true;
+        }
+        if (scope == Scope.WORLD) {
+            return location.getWorld() != null && worldName.equals(location.getWorld().getName());
+        }
         return com.worldprotect.util.GeometryUtils.contains(location, this);
     }
     
+    /**
+     * Check containment for coordinates already known to be in this area's world.
+     */
+    public boolean contains(double x, double y, double z) {
+        return scope != Scope.AREA || com.worldprotect.util.GeometryUtils.contains(this, x, y, z);
+    }
+    
+    /**
+     * Get the interned set containing only this area.
+     * Used for single-hit lookups so they don't allocate.
+     * @param areaSets the world's interner, which supplies the fallback regions
+     */
+    @NotNull
+    AreaSet asSingletonSet(@NotNull AreaSetInterner areaSets) {
+        AreaSet set = singletonSet;
+        if (set == null || !set.hasFallbacks(areaSets.getFallbacks())) {
+            set = areaSets.create(new Area[]{this});
+            singletonSet = set;
+        }
+        return set;
+    }
+    
+    /**
+     * Get the name of a world's fallback region.
+     * @param worldName the world name
+     * @return the region name
+     */
+    @NotNull
+    public static String worldRegionName(@NotNull String worldName) {
+        return "world." + worldName;
+    }
+    
+    // Below every area, with the world region above the global one
+    private static int fallbackPriority(@NotNull Scope scope) {
+        return scope == Scope.GLOBAL ? Integer.MAX_VALUE : Integer.MAX_VALUE - 1;
+    }
+    
+    @NotNull
+    private static ShapeKernel fallbackKernel(@NotNull String worldName) {
+        return new ShapeKernel(worldName, Shape.SQUARE, -FALLBACK_EXTENT, -FALLBACK_EXTENT, -FALLBACK_EXTENT,
+            FALLBACK_EXTENT, FALLBACK_EXTENT, FALLBACK_EXTENT, Collections.emptyList(), Style.FULL, 1);
+    }
+    
+    /**
+     * Get the flag version, which changes whenever a flag or group flag value changes.
+     * @return the flag version
+     */
+    public long getFlagVersion() {
+        return flagVersion;
+    }
+    
     public boolean isOwner(@NotNull UUID playerId) { return owners.contains(playerId); }
     public boolean isMember(@NotNull UUID playerId) { return members.contains(playerId); }
-    public boolean addOwner(@NotNull UUID playerId) { return owners.add(playerId); }
-    public boolean removeOwner(@NotNull UUID playerId) { return owners.remove(playerId); }
-    public boolean addMember(@NotNull UUID playerId) { return members.add(playerId); }
-    public boolean removeMember(@NotNull UUID playerId) { return members.remove(playerId); }
+    public boolean addOwner(@NotNull UUID playerId) { return membershipChanged(owners.add(playerId)); }
+    public boolean removeOwner(@NotNull UUID playerId) { return membershipChanged(owners.remove(playerId)); }
+    public boolean addMember(@NotNull UUID playerId) { return membershipChanged(members.add(playerId)); }
+    public boolean removeMember(@NotNull UUID playerId) { return membershipChanged(members.remove(playerId)); }
+    
+    /**
+     * Get the membership version, which changes whenever an owner or member is added or removed.
+     * @return the membership version
+     */
+    public long getMembershipVersion() {
+        return membershipVersion;
+    }
+    
+    /**
+     * Get the area version, which changes whenever a flag, owner or member changes.
+     * @return the area version
+     */
+    public long getVersion() {
+        // Both counters only grow, so their sum changes with either
+        return flagVersion + membershipVersion;
+    }
+    
+    void attach(@Nullable AreaManager manager) {
+        this.manager = manager;
+    }
+    
+    private void flagsChanged() {
+        flagVersion++;
+        AreaManager current = manager;
+        if (current != null) {
+            current.publish(AreaChangeEvent.Type.FLAGS_CHANGED, this, null);
+        }
+    }
+    
+    private boolean membershipChanged(boolean changed) {
+        if (changed) {
+            membershipVersion++;
+            AreaManager current = manager;
+            if (current != null) {
+                current.publish(AreaChangeEvent.Type.MEMBERSHIP_CHANGED, this, null);
+            }
+        }
+        return changed;
+    }
     
     public void setFlagValue(@NotNull Flag flag, @NotNull FlagResolver.SubjectGroup subjectGroup, boolean value) {
-        Map<FlagResolver.SubjectGroup, Boolean> subjectMap = flagValues.computeIfAbsent(flag, k -> new HashMap<>());
-        subjectMap.put(subjectGroup, value);
+        int group = subjectGroup.ordinal();
+        long bit = 1L << flag.ordinal();
+        flagSet[group] |= bit;
+        flagValue[group] = value ? flagValue[group] | bit : flagValue[group] & ~bit;
+        flagsChanged();
     }
     
     /**
@@ -217,62 +431,231 @@ public class Area implements ConfigurationSerializable {
      * This is a convenience method for simple flag setting.
      */
     public void setFlag(@NotNull Flag flag, boolean value) {
-        for (FlagResolver.SubjectGroup subjectGroup : FlagResolver.SubjectGroup.values()) {
+        for (FlagResolver.SubjectGroup subjectGroup : SUBJECT_GROUPS) {
             setFlagValue(flag, subjectGroup, value);
         }
     }
     
     @Nullable
     public Boolean getFlagValue(@NotNull Flag flag, @NotNull FlagResolver.SubjectGroup subjectGroup) {
-        Map<FlagResolver.SubjectGroup, Boolean> subjectMap = flagValues.get(flag);
-        return subjectMap != null ? subjectMap.get(subjectGroup) : null;
+        int group = subjectGroup.ordinal();
+        long bit = 1L << flag.ordinal();
+        if ((flagSet[group] & bit) == 0) {
+            return null;
+        }
+        return (flagValue[group] & bit) != 0;
     }
     
     public boolean removeFlagValue(@NotNull Flag flag, @NotNull FlagResolver.SubjectGroup subjectGroup) {
-        Map<FlagResolver.SubjectGroup, Boolean> subjectMap = flagValues.get(flag);
-        if (subjectMap != null) {
-            Boolean removed = subjectMap.remove(subjectGroup);
-            if (subjectMap.isEmpty()) flagValues.remove(flag);
-            return removed != null;
+        int group = subjectGroup.ordinal();
+        long bit = 1L << flag.ordinal();
+        if ((flagSet[group] & bit) == 0) {
+            return false;
         }
-        return false;
+        flagSet[group] &= ~bit;
+        flagValue[group] &= ~bit;
+        flagsChanged();
+        return true;
+    }
+    
+    /**
+     * Set whether a flag notifies players, e.g. {@code entry: notify} greets
+     * players entering this area. Independent of the flag's value.
+     * @param flag the flag
+     * @param notify whether to notify
+     */
+    public void setNotify(@NotNull Flag flag, boolean notify) {
+        long bit = 1L << flag.ordinal();
+        long previous = notifyFlags;
+        notifyFlags = notify ? previous | bit : previous & ~bit;
+        if (notifyFlags != previous) {
+            flagsChanged();
+        }
+    }
+    
+    /**
+     * Check whether a flag notifies players.
+     * @param flag the flag
+     * @return true if the flag was set to {@code notify}
+     */
+    public boolean isNotify(@NotNull Flag flag) {
+        return (notifyFlags & (1L << flag.ordinal())) != 0;
     }
     
     public void setGroupFlagValue(@NotNull GroupFlag groupFlag, @NotNull FlagResolver.SubjectGroup subjectGroup, boolean value) {
-        Map<FlagResolver.SubjectGroup, Boolean> subjectMap = groupFlagValues.computeIfAbsent(groupFlag, k -> new HashMap<>());
-        subjectMap.put(subjectGroup, value);
+        int group = subjectGroup.ordinal();
+        int bit = 1 << groupFlag.ordinal();
+        groupFlagSet[group] |= bit;
+        groupFlagValue[group] = value ? groupFlagValue[group] | bit : groupFlagValue[group] & ~bit;
+        compileGroupFlags(group);
+        flagsChanged();
     }
     
     @Nullable
     public Boolean getGroupFlagValue(@NotNull GroupFlag groupFlag, @NotNull FlagResolver.SubjectGroup subjectGroup) {
-        Map<FlagResolver.SubjectGroup, Boolean> subjectMap = groupFlagValues.get(groupFlag);
-        return subjectMap != null ? subjectMap.get(subjectGroup) : null;
+        int group = subjectGroup.ordinal();
+        int bit = 1 << groupFlag.ordinal();
+        if ((groupFlagSet[group] & bit) == 0) {
+            return null;
+        }
+        return (groupFlagValue[group] & bit) != 0;
     }
     
     public boolean removeGroupFlagValue(@NotNull GroupFlag groupFlag, @NotNull FlagResolver.SubjectGroup subjectGroup) {
-        Map<FlagResolver.SubjectGroup, Boolean> subjectMap = groupFlagValues.get(groupFlag);
-        if (subjectMap != null) {
-            Boolean removed = subjectMap.remove(subjectGroup);
-            if (subjectMap.isEmpty()) groupFlagValues.remove(groupFlag);
-            return removed != null;
+        int group = subjectGroup.ordinal();
+        int bit = 1 << groupFlag.ordinal();
+        if ((groupFlagSet[group] & bit) == 0) {
+            return false;
         }
-        return false;
+        groupFlagSet[group] &= ~bit;
+        groupFlagValue[group] &= ~bit;
+        compileGroupFlags(group);
+        flagsChanged();
+        return true;
+    }
+    
+    /**
+     * Get the atomic flags with an explicit value for a subject group.
+     * @param subjectGroup the subject group
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getFlagSetMask(@NotNull FlagResolver.SubjectGroup subjectGroup) {
+        return flagSet[subjectGroup.ordinal()];
     }
     
+    /**
+     * Get the explicit atomic flag values for a subject group. Bits of flags
+     * without a value are clear.
+     * @param subjectGroup the subject group
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getFlagValueMask(@NotNull FlagResolver.SubjectGroup subjectGroup) {
+        return flagValue[subjectGroup.ordinal()];
+    }
+    
+    /**
+     * Get the group flags with an explicit value for a subject group.
+     * @param subjectGroup the subject group
+     * @return bit mask indexed by {@link GroupFlag#ordinal()}
+     */
+    public int getGroupFlagSetMask(@NotNull FlagResolver.SubjectGroup subjectGroup) {
+        return groupFlagSet[subjectGroup.ordinal()];
+    }
+    
+    /**
+     * Get the explicit group flag values for a subject group. Bits of group
+     * flags without a value are clear.
+     * @param subjectGroup the subject group
+     * @return bit mask indexed by {@link GroupFlag#ordinal()}
+     */
+    public int getGroupFlagValueMask(@NotNull FlagResolver.SubjectGroup subjectGroup) {
+        return groupFlagValue[subjectGroup.ordinal()];
+    }
+    
+    /**
+     * Get the atomic flags that inherit a value from one of this area's group flags.
+     * @param subjectGroup the subject group
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getInheritedFlagSetMask(@NotNull FlagResolver.SubjectGroup subjectGroup) {
+        return inheritedSet[subjectGroup.ordinal()];
+    }
+    
+    /**
+     * Get the atomic flag values inherited from this area's group flags.
+     * @param subjectGroup the subject group
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getInheritedFlagValueMask(@NotNull FlagResolver.SubjectGroup subjectGroup) {
+        return inheritedValue[subjectGroup.ordinal()];
+    }
+    
+    /**
+     * Get the atomic flags this area decides for a subject group, explicitly
+     * or through a group flag.
+     * @param subjectGroup the subject group
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getEffectiveFlagSetMask(@NotNull FlagResolver.SubjectGroup subjectGroup) {
+        int group = subjectGroup.ordinal();
+        return flagSet[group] | inheritedSet[group];
+    }
+    
+    /**
+     * Get the atomic flag values this area decides for a subject group. An
+     * explicit value beats the value inherited from this area's group flags.
+     * @param subjectGroup the subject group
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getEffectiveFlagValueMask(@NotNull FlagResolver.SubjectGroup subjectGroup) {
+        int group = subjectGroup.ordinal();
+        return flagValue[group] | (inheritedValue[group] & ~flagSet[group]);
+    }
+    
+    /**
+     * Get the atomic flags this area gives a value for any subject group,
+     * explicitly or through a group flag.
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getUsedFlagMask() {
+        long used = 0;
+        for (int group = 0; group < GROUPS; group++) {
+            used |= flagSet[group] | inheritedSet[group];
+        }
+        return used;
+    }
+    
+    /**
+     * Recompute the atomic flags covered by group flag values. A flag in several
+     * groups takes the value of the first group in declaration order.
+     */
+    private void compileGroupFlags(int group) {
+        long known = 0;
+        long value = 0;
+        for (int bits = groupFlagSet[group]; bits != 0; bits &= bits - 1) {
+            int index = Integer.numberOfTrailingZeros(bits);
+            long covered = GROUP_FLAGS[index].getAtomicFlagMask() & ~known;
+            if ((groupFlagValue[group] & (1 << index)) != 0) {
+                value |= covered;
+            }
+            known |= covered;
+        }
+        inheritedSet[group] = known;
+        inheritedValue[group] = value;
+    }
+    
+    /**
+     * Get a copy of the explicit flag values, keyed by flag and subject group.
+     * Flags without any value are absent.
+     */
     @NotNull
     public Map<Flag, Map<FlagResolver.SubjectGroup, Boolean>> getFlagValues() {
         Map<Flag, Map<FlagResolver.SubjectGroup, Boolean>> result = new HashMap<>();
-        for (Map.Entry<Flag, Map<FlagResolver.SubjectGroup, Boolean>> entry : flagValues.entrySet()) {
-            result.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        for (FlagResolver.SubjectGroup subjectGroup : SUBJECT_GROUPS) {
+            int group = subjectGroup.ordinal();
+            for (long bits = flagSet[group]; bits != 0; bits &= bits - 1) {
+                int index = Long.numberOfTrailingZeros(bits);
+                result.computeIfAbsent(FLAGS[index], k -> new HashMap<>())
+                    .put(subjectGroup, (flagValue[group] & (1L << index)) != 0);
+            }
         }
         return result;
     }
     
+    /**
+     * Get a copy of the explicit group flag values, keyed by group flag and subject group.
+     * Group flags without any value are absent.
+     */
     @NotNull
     public Map<GroupFlag, Map<FlagResolver.SubjectGroup, Boolean>> getGroupFlagValues() {
         Map<GroupFlag, Map<FlagResolver.SubjectGroup, Boolean>> result = new HashMap<>();
-        for (Map.Entry<GroupFlag, Map<FlagResolver.SubjectGroup, Boolean>> entry : groupFlagValues.entrySet()) {
-            result.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        for (FlagResolver.SubjectGroup subjectGroup : SUBJECT_GROUPS) {
+            int group = subjectGroup.ordinal();
+            for (int bits = groupFlagSet[group]; bits != 0; bits &= bits - 1) {
+                int index = Integer.numberOfTrailingZeros(bits);
+                result.computeIfAbsent(GROUP_FLAGS[index], k -> new HashMap<>())
+                    .put(subjectGroup, (groupFlagValue[group] & (1 << index)) != 0);
+            }
         }
         return result;
     }
@@ -282,6 +665,9 @@ public class Area implements ConfigurationSerializable {
     public Map<String, Object> serialize() {
         Map<String, Object> data = new HashMap<>();
         data.put("name", name);
+        if (scope != Scope.AREA) {
+            data.put("scope", scope.name());
+        }
         data.put("worldName", worldName);
         data.put("priority", priority);
         data.put("shape", shape.name());
@@ -298,7 +684,7 @@ public class Area implements ConfigurationSerializable {
         data.put("members", memberStrings);
         
         Map<String, Map<String, Boolean>> flagData = new HashMap<>();
-        for (Map.Entry<Flag, Map<FlagResolver.SubjectGroup, Boolean>> entry : flagValues.entrySet()) {
+        for (Map.Entry<Flag, Map<FlagResolver.SubjectGroup, Boolean>> entry : getFlagValues().entrySet()) {
             Map<String, Boolean> subjectData = new HashMap<>();
             for (Map.Entry<FlagResolver.SubjectGroup, Boolean> subjectEntry : entry.getValue().entrySet()) {
                 subjectData.put(subjectEntry.getKey().name(), subjectEntry.getValue());
@@ -308,7 +694,7 @@ public class Area implements ConfigurationSerializable {
         data.put("flagValues", flagData);
         
         Map<String, Map<String, Boolean>> groupFlagData = new HashMap<>();
-        for (Map.Entry<GroupFlag, Map<FlagResolver.SubjectGroup, Boolean>> entry : groupFlagValues.entrySet()) {
+        for (Map.Entry<GroupFlag, Map<FlagResolver.SubjectGroup, Boolean>> entry : getGroupFlagValues().entrySet()) {
             Map<String, Boolean> subjectData = new HashMap<>();
             for (Map.Entry<FlagResolver.SubjectGroup, Boolean> subjectEntry : entry.getValue().entrySet()) {
                 subjectData.put(subjectEntry.getKey().name(), subjectEntry.getValue());
@@ -317,6 +703,16 @@ public class Area implements ConfigurationSerializable {
         }
         data.put("groupFlagValues", groupFlagData);
         
+        if (notifyFlags != 0) {
+            List<String> notifyData = new ArrayList<>();
+            for (Flag flag : FLAGS) {
+                if (isNotify(flag)) {
+                    notifyData.add(flag.getName());
+                }
+            }
+            data.put("notifyFlags", notifyData);
+        }
+        
         Map<String, Object> minData = new HashMap<>();
         minData.put("x", minBounds.getX());
         minData.put("y", minBounds.getY());
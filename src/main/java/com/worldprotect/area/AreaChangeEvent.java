@@ -0,0 +1,86 @@
+package com.worldprotect.area;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A change to the protection data held by an {@link AreaManager}.
+ * Delivered synchronously to every {@link AreaChangeListener}, on the thread
+ * that made the change, after the change is visible to lookups.
+ */
+public final class AreaChangeEvent {
+
+    /**
+     * What changed.
+     */
+    public enum Type {
+        /** An area was added. */
+        ADDED,
+        /** An area was removed. */
+        REMOVED,
+        /** An area was replaced by one with the same name and different geometry. */
+        BOUNDS_CHANGED,
+        /** A flag or group flag value of an area was set or removed. */
+        FLAGS_CHANGED,
+        /** An owner or member of an area was added or removed. */
+        MEMBERSHIP_CHANGED
+    }
+
+    private final Type type;
+    private final Area area;
+    private final Area previousArea;
+    private final long epoch;
+
+    AreaChangeEvent(@NotNull Type type, @NotNull Area area, @Nullable Area previousArea, long epoch) {
+        this.type = type;
+        this.area = area;
+        this.previousArea = previousArea;
+        this.epoch = epoch;
+    }
+
+    @NotNull
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the affected area. For {@link Type#REMOVED} this is the removed area,
+     * for {@link Type#BOUNDS_CHANGED} the replacement.
+     * @return the area
+     */
+    @NotNull
+    public Area getArea() {
+        return area;
+    }
+
+    /**
+     * Get the replaced area of a {@link Type#BOUNDS_CHANGED} event.
+     * @return the previous area, or null for other event types
+     */
+    @Nullable
+    public Area getPreviousArea() {
+        return previousArea;
+    }
+
+    /**
+     * Get the world of the affected area.
+     * @return the world name, {@value Area#ALL_WORLDS} for the global region
+     */
+    @NotNull
+    public String getWorldName() {
+        return area.getWorldName();
+    }
+
+    /**
+     * Get the manager's epoch right after this change.
+     * @return the epoch
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    @Override
+    public String toString() {
+        return "AreaChangeEvent[" + type + ", " + area.getName() + ", epoch " + epoch + "]";
+    }
+}
@@ -0,0 +1,19 @@
+package com.worldprotect.area;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives changes to the areas of an {@link AreaManager}.
+ *
+ * <p>Listeners run synchronously on the thread that made the change, so they
+ * should only invalidate state and return; heavy work belongs on a scheduler.</p>
+ */
+@FunctionalInterface
+public interface AreaChangeListener {
+
+    /**
+     * Called after an area changed.
+     * @param event the change
+     */
+    void onAreaChange(@NotNull AreaChangeEvent event);
+}
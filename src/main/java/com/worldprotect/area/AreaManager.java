@@ -1,32 +1,88 @@
 package com.worldprotect.area;
 
+import com.worldprotect.flags.EffectiveFlags;
 import com.worldprotect.flags.Flag;
+import com.worldprotect.flags.FlagDefaults;
 import com.worldprotect.flags.FlagResolver;
 import com.worldprotect.flags.GroupFlag;
 import com.worldprotect.selection.Selection;
+import com.worldprotect.util.LongObjectMap;
+import com.worldprotect.util.PolygonRaster;
 import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
  * Manages all areas in the plugin.
+ *
+ * <p>Besides areas, which are found through a spatial index, the manager holds
+ * one optional global region and one optional region per world. These fallback
+ * regions have owners, members and flags like areas but no geometry: every
+ * {@link AreaSet} of a world ends with them, so they are resolved without a
+ * query or containment check, below every area.</p>
  */
 public class AreaManager {
     
+    private static final Area[] NO_AREAS = new Area[0];
+    
     private final Map<String, Area> areasByName;
     private final Map<World, List<Area>> areasByWorld;
+    private final Map<World, SpatialIndex> indexByWorld;
+    private final Map<World, AreaSetInterner> areaSetsByWorld;
+    private final Map<World, ChunkClassifier> chunksByWorld;
     private final Map<UUID, List<Area>> areasByOwner;
+    private final SpatialIndex.Type indexType;
+    private final int gridCellSize;
+    private final int rasterMinVertices;
+    private final int maxAreaSets;
+    private final int maxCachedSubjects;
+    private final int chunkCacheSize;
+    private final AtomicLong epoch = new AtomicLong();
+    private final Map<String, AtomicLong> worldVersions = new ConcurrentHashMap<>();
+    private final List<AreaChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Area> worldRegions = new ConcurrentHashMap<>();
+    private volatile Area globalRegion;
+    private final FlagUsage flagUsage = new FlagUsage(FlagResolver.getDefaults());
     
     public AreaManager() {
+        this(SpatialIndex.Type.GRID, 16, 64, 1000, 5000, 4096);
+    }
+    
+    /**
+     * Create an area manager with a specific spatial index.
+     * @param indexType the index type ({@code performance.spatial-index-type})
+     * @param gridCellSize the grid cell size in chunks ({@code performance.grid-cell-size})
+     * @param rasterMinVertices minimum polygon vertex count to rasterize
+     *                          ({@code performance.polygon-raster-min-vertices}, 0 disables)
+     * @param maxAreaSets maximum interned area combinations per world ({@code performance.region-cache-size})
+     * @param maxCachedSubjects maximum cached player subject groups per area combination
+     *                          ({@code performance.flag-cache-size}, 0 disables)
+     * @param chunkCacheSize chunk classifications kept per world
+     *                       ({@code performance.chunk-cache-size}, 0 disables)
+     */
+    public AreaManager(@NotNull SpatialIndex.Type indexType, int gridCellSize, int rasterMinVertices,
+                       int maxAreaSets, int maxCachedSubjects, int chunkCacheSize) {
         this.areasByName = new ConcurrentHashMap<>();
         this.areasByWorld = new ConcurrentHashMap<>();
+        this.indexByWorld = new ConcurrentHashMap<>();
+        this.areaSetsByWorld = new ConcurrentHashMap<>();
+        this.chunksByWorld = new ConcurrentHashMap<>();
         this.areasByOwner = new ConcurrentHashMap<>();
+        this.indexType = indexType;
+        this.gridCellSize = Math.max(1, gridCellSize);
+        this.rasterMinVertices = rasterMinVertices;
+        this.maxAreaSets = Math.max(0, maxAreaSets);
+        this.maxCachedSubjects = Math.max(0, maxCachedSubjects);
+        this.chunkCacheSize = Math.max(0, chunkCacheSize);
     }
     
     /**
@@ -35,25 +91,63 @@ public class AreaManager {
      * @return true if added, false if area with same name already exists
      */
     public boolean addArea(@NotNull Area area) {
+        if (area.isFallback()) {
+            return addFallbackRegion(area);
+        }
         String name = area.getName();
         if (areasByName.containsKey(name)) {
             return false;
         }
         
         areasByName.put(name, area);
-        
-        // Add to world index
-        World world = area.getWorld();
-        if (world != null) {
-            areasByWorld.computeIfAbsent(world, k -> new ArrayList<>()).add(area);
+        index(area);
+        area.attach(this);
+        publish(AreaChangeEvent.Type.ADDED, area, null);
+        return true;
+    }
+    
+    /**
+     * Add many areas at once, building each world's spatial index in one pass.
+     * Areas whose name is already taken are skipped. Fallback regions are
+     * installed as such.
+     * @param areas the areas to add
+     * @return the number of areas added
+     */
+    public int addAreas(@NotNull Collection<Area> areas) {
+        Map<World, List<Area>> added = new HashMap<>();
+        List<Area> accepted = new ArrayList<>();
+        int fallbacks = 0;
+        for (Area area : areas) {
+            if (area.isFallback()) {
+                fallbacks += addFallbackRegion(area) ? 1 : 0;
+                continue;
+            }
+            if (areasByName.putIfAbsent(area.getName(), area) != null) {
+                continue;
+            }
+            accepted.add(area);
+            rasterize(area);
+            
+            World world = area.getWorld();
+            if (world != null) {
+                insertSorted(areasByWorld.computeIfAbsent(world, k -> new ArrayList<>()), area);
+                added.computeIfAbsent(world, k -> new ArrayList<>()).add(area);
+            }
+            
+            for (UUID owner : area.getOwners()) {
+                areasByOwner.computeIfAbsent(owner, k -> new ArrayList<>()).add(area);
+            }
         }
         
-        // Add to owner index
-        for (UUID owner : area.getOwners()) {
-            areasByOwner.computeIfAbsent(owner, k -> new ArrayList<>()).add(area);
+        for (Map.Entry<World, List<Area>> entry : added.entrySet()) {
+            getOrCreateIndex(entry.getKey()).insertAll(entry.getValue());
+            invalidateChunks(entry.getKey());
         }
-        
-        return true;
+        for (Area area : accepted) {
+            area.attach(this);
+            publish(AreaChangeEvent.Type.ADDED, area, null);
+        }
+        return accepted.size() + fallbacks;
     }
     
     /**
@@ -68,6 +162,57 @@ public class AreaManager {
             return null;
         }
         
+        unindex(area);
+        area.attach(null);
+        publish(AreaChangeEvent.Type.REMOVED, area, null);
+        return area;
+    }
+    
+    /**
+     * Replace an area with a new definition of the same name, e.g. after its
+     * geometry was redefined. The old instance stops receiving change tracking.
+     * @param area the new area
+     * @return true if an area with that name existed and was replaced
+     */
+    public boolean replaceArea(@NotNull Area area) {
+        Area previous = areasByName.get(area.getName());
+        if (previous == null || previous == area
+            || !areasByName.replace(area.getName(), previous, area)) {
+            return false;
+        }
+        
+        unindex(previous);
+        previous.attach(null);
+        index(area);
+        area.attach(this);
+        publish(AreaChangeEvent.Type.BOUNDS_CHANGED, area, previous);
+        return true;
+    }
+    
+    /**
+     * Add an area to the world, spatial and owner indexes.
+     */
+    private void index(@NotNull Area area) {
+        rasterize(area);
+        
+        // Add to world index
+        World world = area.getWorld();
+        if (world != null) {
+            insertSorted(areasByWorld.computeIfAbsent(world, k -> new ArrayList<>()), area);
+            getOrCreateIndex(world).insert(area);
+            invalidateChunks(world);
+        }
+        
+        // Add to owner index
+        for (UUID owner : area.getOwners()) {
+            areasByOwner.computeIfAbsent(owner, k -> new ArrayList<>()).add(area);
+        }
+    }
+    
+    /**
+     * Remove an area from the world, spatial and owner indexes.
+     */
+    private void unindex(@NotNull Area area) {
         // Remove from world index
         World world = area.getWorld();
         if (world != null) {
@@ -78,6 +223,21 @@ public class AreaManager {
                     areasByWorld.remove(world);
                 }
             }
+            
+            SpatialIndex index = indexByWorld.get(world);
+            if (index != null) {
+                index.remove(area);
+                if (index.size() == 0) {
+                    indexByWorld.remove(world);
+                }
+            }
+            
+            // Combinations with the removed area can no longer occur
+            AreaSetInterner areaSets = areaSetsByWorld.get(world);
+            if (areaSets != null) {
+                areaSets.removeContaining(area);
+            }
+            invalidateChunks(world);
         }
         
         // Remove from owner index
@@ -90,8 +250,6 @@ public class AreaManager {
                 }
             }
         }
-        
-        return area;
     }
     
     /**
@@ -113,6 +271,148 @@ public class AreaManager {
         return areasByName.containsKey(name);
     }
     
+    /**
+     * Get the global region, which applies in every world below all areas and world regions.
+     * @return the global region, or null if none was created
+     */
+    @Nullable
+    public Area getGlobalRegion() {
+        return globalRegion;
+    }
+    
+    /**
+     * Get the global region, creating an empty one if needed.
+     * @return the global region
+     */
+    @NotNull
+    public Area getOrCreateGlobalRegion() {
+        Area region = globalRegion;
+        if (region == null) {
+            addFallbackRegion(new Area(Area.Scope.GLOBAL, null));
+            region = globalRegion;
+        }
+        return region;
+    }
+    
+    /**
+     * Get the region of a world, which applies everywhere in it below all areas.
+     * @param worldName the world name
+     * @return the world region, or null if none was created
+     */
+    @Nullable
+    public Area getWorldRegion(@NotNull String worldName) {
+        return worldRegions.get(worldName);
+    }
+    
+    /**
+     * Get the region of a world, creating an empty one if needed.
+     * @param worldName the world name
+     * @return the world region
+     */
+    @NotNull
+    public Area getOrCreateWorldRegion(@NotNull String worldName) {
+        Area region = worldRegions.get(worldName);
+        if (region == null) {
+            addFallbackRegion(new Area(Area.Scope.WORLD, worldName));
+            region = worldRegions.get(worldName);
+        }
+        return region;
+    }
+    
+    /**
+     * Get a fallback region by name: {@value Area#GLOBAL_REGION_NAME} or
+     * {@code world.<world>} (see {@link Area#worldRegionName(String)}).
+     * @param name the region name
+     * @return the region, or null if the name is not a fallback region or it wasn't created
+     */
+    @Nullable
+    public Area getFallbackRegion(@NotNull String name) {
+        if (name.equals(Area.GLOBAL_REGION_NAME)) {
+            return globalRegion;
+        }
+        String prefix = Area.worldRegionName("");
+        return name.startsWith(prefix) ? worldRegions.get(name.substring(prefix.length())) : null;
+    }
+    
+    /**
+     * Get every fallback region, world regions first.
+     * @return new list of fallback regions
+     */
+    @NotNull
+    public List<Area> getFallbackRegions() {
+        List<Area> regions = new ArrayList<>(worldRegions.values());
+        Area global = globalRegion;
+        if (global != null) {
+            regions.add(global);
+        }
+        return regions;
+    }
+    
+    /**
+     * Remove a fallback region.
+     * @param name the region name, as accepted by {@link #getFallbackRegion(String)}
+     * @return the removed region, or null if not found
+     */
+    @Nullable
+    public Area removeFallbackRegion(@NotNull String name) {
+        Area region;
+        synchronized (worldRegions) {
+            region = getFallbackRegion(name);
+            if (region == null) {
+                return null;
+            }
+            if (region.getScope() == Area.Scope.GLOBAL) {
+                globalRegion = null;
+            } else {
+                worldRegions.remove(region.getWorldName());
+            }
+            fallbacksChanged(region);
+        }
+        region.attach(null);
+        publish(AreaChangeEvent.Type.REMOVED, region, null);
+        return region;
+    }
+    
+    /**
+     * Install a fallback region unless its scope already has one.
+     */
+    private boolean addFallbackRegion(@NotNull Area region) {
+        synchronized (worldRegions) {
+            if (region.getScope() == Area.Scope.GLOBAL) {
+                if (globalRegion != null) {
+                    return false;
+                }
+                globalRegion = region;
+            } else if (worldRegions.putIfAbsent(region.getWorldName(), region) != null) {
+                return false;
+            }
+            fallbacksChanged(region);
+        }
+        region.attach(this);
+        publish(AreaChangeEvent.Type.ADDED, region, null);
+        return true;
+    }
+    
+    /**
+     * Drop the interners whose sets end with an outdated fallback array, and
+     * the chunk classifications holding such sets; the next lookup builds new ones.
+     */
+    private void fallbacksChanged(@NotNull Area region) {
+        if (region.getScope() == Area.Scope.GLOBAL) {
+            areaSetsByWorld.clear();
+            for (ChunkClassifier chunks : chunksByWorld.values()) {
+                chunks.invalidate();
+            }
+        } else {
+            areaSetsByWorld.keySet().removeIf(world -> world.getName().equals(region.getWorldName()));
+            for (Map.Entry<World, ChunkClassifier> entry : chunksByWorld.entrySet()) {
+                if (entry.getKey().getName().equals(region.getWorldName())) {
+                    entry.getValue().invalidate();
+                }
+            }
+        }
+    }
+    
     /**
      * Get all areas.
      * @return collection of all areas
@@ -125,7 +425,7 @@ public class AreaManager {
     /**
      * Get areas in a specific world.
      * @param world the world
-     * @return list of areas in the world
+     * @return list of areas in the world, in resolution order
      */
     @NotNull
     public List<Area> getAreasInWorld(@NotNull World world) {
@@ -158,6 +458,9 @@ public class AreaManager {
     
     /**
      * Get areas that contain a location.
+     * <p>The result is already in resolution order (see {@link Area#RESOLUTION_ORDER}),
+     * so no sorting happens here. The list belongs to the interned {@link AreaSet}
+     * for the location, so repeated lookups don't allocate.</p>
      * @param location the location
      * @return list of areas containing the location, sorted by priority (highest first)
      */
@@ -167,26 +470,350 @@ public class AreaManager {
         if (world == null) {
             return Collections.emptyList();
         }
+        return getAreasAt(world, location.getX(), location.getY(), location.getZ());
+    }
+    
+    /**
+     * Get areas that contain a block position, without allocating a {@link Location}.
+     * @param world the world
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @return list of areas containing the block, in resolution order
+     */
+    @NotNull
+    public List<Area> getAreasAt(@NotNull World world, int x, int y, int z) {
+        return getAreasAt(world, (double) x, (double) y, (double) z);
+    }
+    
+    /**
+     * Get areas that contain a point, without allocating a {@link Location}.
+     * @param world the world
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return list of areas containing the point, in resolution order
+     */
+    @NotNull
+    public List<Area> getAreasAt(@NotNull World world, double x, double y, double z) {
+        return getAreaSetAt(world, x, y, z).getAreas();
+    }
+    
+    /**
+     * Get the interned set of areas that contain a location.
+     * @param location the location
+     * @return the area set, an empty set if no area contains the location
+     */
+    @NotNull
+    public AreaSet getAreaSetAt(@NotNull Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return AreaSet.EMPTY;
+        }
+        return getAreaSetAt(world, location.getX(), location.getY(), location.getZ());
+    }
+    
+    /**
+     * Get the interned set of areas that contain a point.
+     * <p>Every location covered by the same combination of areas gets the same
+     * instance, along with its precomputed flag table. Finding an existing
+     * combination doesn't allocate. In chunks classified as
+     * {@link ChunkCoverage#EMPTY} or {@link ChunkCoverage#UNIFORM} the set comes
+     * from the classification, without a query or containment check.</p>
+     * @param world the world
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return the area set, the world's empty set if no area contains the point
+     */
+    @NotNull
+    public AreaSet getAreaSetAt(@NotNull World world, double x, double y, double z) {
+        ChunkClassifier chunks = getOrCreateChunks(world);
+        int generation = chunks != null ? chunks.getGeneration() : 0;
+        AreaSetInterner areaSets = getOrCreateAreaSets(world);
+        SpatialIndex index = indexByWorld.get(world);
+        if (index == null) {
+            return areaSets.getEmptySet();
+        }
+        if (chunks == null || !chunks.isInHeight(y)) {
+            return getAreaSet(areaSets, index.query(x, z), x, y, z);
+        }
         
-        List<Area> worldAreas = areasByWorld.get(world);
-        if (worldAreas == null) {
-            return Collections.emptyList();
+        int chunkX = (int) Math.floor(x) >> 4;
+        int chunkZ = (int) Math.floor(z) >> 4;
+        ChunkClassifier.Entry entry = chunks.get(chunkX, chunkZ);
+        if (entry == null) {
+            entry = classify(chunks, generation, areaSets, index, chunkX, chunkZ);
+        }
+        return entry.set != null ? entry.set : getAreaSet(areaSets, index.query(x, z), x, y, z);
+    }
+    
+    /**
+     * Classify a chunk and store the result.
+     * @param generation the classifier generation read before the interner and index
+     */
+    @NotNull
+    private ChunkClassifier.Entry classify(@NotNull ChunkClassifier chunks, int generation,
+                                           @NotNull AreaSetInterner areaSets, @NotNull SpatialIndex index,
+                                           int chunkX, int chunkZ) {
+        Area[] candidates = index.intersectsChunk(chunkX, chunkZ) ? index.queryChunk(chunkX, chunkZ) : NO_AREAS;
+        ChunkCoverage coverage = chunks.classify(candidates, chunkX, chunkZ);
+        AreaSet set = null;
+        if (coverage == ChunkCoverage.EMPTY) {
+            set = areaSets.getEmptySet();
+        } else if (coverage == ChunkCoverage.UNIFORM) {
+            // Every point of the chunk has the same areas, so any one will do
+            set = getAreaSet(areaSets, candidates, chunkX << 4, chunks.getMinY(), chunkZ << 4);
+        }
+        return chunks.put(chunkX, chunkZ, generation, coverage, set);
+    }
+    
+    /**
+     * Get the set shared by every point of a chunk section (16×16×16 blocks),
+     * for callers that keep one verdict per section. Sections that an area
+     * edge crosses have no such set.
+     * @param world the world
+     * @param sectionX the section x coordinate, i.e. the chunk x coordinate
+     * @param sectionY the section y coordinate (block y {@code >> 4})
+     * @param sectionZ the section z coordinate, i.e. the chunk z coordinate
+     * @return the set, or null if locations in the section differ
+     */
+    @Nullable
+    public AreaSet getSectionSet(@NotNull World world, int sectionX, int sectionY, int sectionZ) {
+        AreaSetInterner areaSets = getOrCreateAreaSets(world);
+        SpatialIndex index = indexByWorld.get(world);
+        if (index == null || !index.intersectsChunk(sectionX, sectionZ)) {
+            return areaSets.getEmptySet();
+        }
+        Area[] candidates = index.queryChunk(sectionX, sectionZ);
+        int minX = sectionX << 4;
+        int minY = sectionY << 4;
+        int minZ = sectionZ << 4;
+        switch (ChunkClassifier.classify(candidates, minX, minZ, minY, minY + 16)) {
+            case EMPTY:
+                return areaSets.getEmptySet();
+            case UNIFORM:
+                return getAreaSet(areaSets, candidates, minX, minY, minZ);
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * Get how the areas of a world cover a chunk, classifying it if needed.
+     * Without a chunk cache every chunk with areas nearby reports
+     * {@link ChunkCoverage#MIXED}.
+     * @param world the world
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     * @return the chunk's coverage
+     */
+    @NotNull
+    public ChunkCoverage getChunkCoverage(@NotNull World world, int chunkX, int chunkZ) {
+        ChunkClassifier chunks = getOrCreateChunks(world);
+        int generation = chunks != null ? chunks.getGeneration() : 0;
+        AreaSetInterner areaSets = getOrCreateAreaSets(world);
+        SpatialIndex index = indexByWorld.get(world);
+        if (index == null || !index.intersectsChunk(chunkX, chunkZ)) {
+            return ChunkCoverage.EMPTY;
+        }
+        if (chunks == null) {
+            return ChunkCoverage.MIXED;
+        }
+        ChunkClassifier.Entry entry = chunks.get(chunkX, chunkZ);
+        return (entry != null ? entry : classify(chunks, generation, areaSets, index, chunkX, chunkZ)).coverage;
+    }
+    
+    /**
+     * Get the interned set of the candidates that contain a point.
+     * @param candidates candidates for the point's column, in resolution order
+     */
+    @NotNull
+    private AreaSet getAreaSet(@NotNull AreaSetInterner areaSets, @NotNull Area[] candidates,
+                               double x, double y, double z) {
+        // Candidates come back in resolution order, so filtering preserves it
+        if (candidates.length > Long.SIZE) {
+            return getAreaSetSlow(areaSets, candidates, x, y, z);
+        }
+        long mask = 0;
+        int count = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            if (candidates[i].contains(x, y, z)) {
+                mask |= 1L << i;
+                count++;
+            }
         }
         
-        List<Area> containingAreas = new ArrayList<>();
-        for (Area area : worldAreas) {
-            if (area.contains(location)) {
-                containingAreas.add(area);
+        if (count == 0) {
+            return areaSets.getEmptySet();
+        }
+        if (count == 1) {
+            return candidates[Long.numberOfTrailingZeros(mask)].asSingletonSet(areaSets);
+        }
+        
+        int hash = AreaSet.hashOf(candidates, mask);
+        AreaSet set = areaSets.find(candidates, mask, count, hash);
+        if (set != null) {
+            return set;
+        }
+        Area[] hits = new Area[count];
+        int position = 0;
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            hits[position++] = candidates[Long.numberOfTrailingZeros(bits)];
+        }
+        return areaSets.intern(areaSets.create(hits));
+    }
+    
+    /**
+     * Lookup for cells with more candidates than fit in a bit mask.
+     */
+    @NotNull
+    private AreaSet getAreaSetSlow(@NotNull AreaSetInterner areaSets, @NotNull Area[] candidates,
+                                   double x, double y, double z) {
+        Area[] hits = new Area[candidates.length];
+        int count = 0;
+        for (Area area : candidates) {
+            if (area.contains(x, y, z)) {
+                hits[count++] = area;
             }
         }
+        if (count == 0) {
+            return areaSets.getEmptySet();
+        }
+        if (count == 1) {
+            return hits[0].asSingletonSet(areaSets);
+        }
+        AreaSet set = areaSets.find(hits, count, AreaSet.hashOf(hits, count));
+        return set != null ? set : areaSets.intern(areaSets.create(Arrays.copyOf(hits, count)));
+    }
+    
+    /**
+     * Resolve an atomic flag for many blocks of one world at once, e.g. the
+     * blocks of an explosion, for nonmembers. The index is probed once per chunk
+     * rather than once per block, and if no area comes near the blocks' bounding
+     * box the unclaimed value is used for all of them without any lookup.
+     * @param blocks the blocks, all in the same world
+     * @param flag the flag
+     * @return bit i set if the flag is allowed at {@code blocks.get(i)}
+     */
+    @NotNull
+    public BitSet resolveFlag(@NotNull List<Block> blocks, @NotNull Flag flag) {
+        int count = blocks.size();
+        BitSet allowed = new BitSet(count);
+        if (count == 0) {
+            return allowed;
+        }
+        World world = blocks.get(0).getWorld();
+        AreaSetInterner areaSets = getOrCreateAreaSets(world);
+        boolean unclaimed = areaSets.getEmptySet().isAllowed(flag, FlagResolver.SubjectGroup.NONMEMBER);
+        SpatialIndex index = indexByWorld.get(world);
         
-        // Sort by priority (lower priority number = higher priority)
-        // For same priority, use lexicographic order of area names for deterministic tie-breaking
-        containingAreas.sort(Comparator
-            .comparingInt(Area::getPriority)
-            .thenComparing(Area::getName));
+        if (index == null || !intersectsChunks(index, blocks)) {
+            if (unclaimed) {
+                allowed.set(0, count);
+            }
+            return allowed;
+        }
         
-        return containingAreas;
+        LongObjectMap<Area[]> chunkCandidates = new LongObjectMap<>();
+        for (int i = 0; i < count; i++) {
+            Block block = blocks.get(i);
+            int chunkX = block.getX() >> 4;
+            int chunkZ = block.getZ() >> 4;
+            long key = LongObjectMap.key(chunkX, chunkZ);
+            Area[] candidates = chunkCandidates.get(key);
+            if (candidates == null) {
+                candidates = index.intersectsChunk(chunkX, chunkZ) ? index.queryChunk(chunkX, chunkZ) : NO_AREAS;
+                chunkCandidates.put(key, candidates);
+            }
+            boolean value = candidates.length == 0
+                ? unclaimed
+                : getAreaSet(areaSets, candidates, block.getX(), block.getY(), block.getZ())
+                    .isAllowed(flag, FlagResolver.SubjectGroup.NONMEMBER);
+            if (value) {
+                allowed.set(i);
+            }
+        }
+        return allowed;
+    }
+    
+    /**
+     * Check whether any area overlaps a chunk of the blocks' bounding box.
+     */
+    private static boolean intersectsChunks(@NotNull SpatialIndex index, @NotNull List<Block> blocks) {
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            minX = Math.min(minX, block.getX());
+            minZ = Math.min(minZ, block.getZ());
+            maxX = Math.max(maxX, block.getX());
+            maxZ = Math.max(maxZ, block.getZ());
+        }
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                if (index.intersectsChunk(chunkX, chunkZ)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Get the set for locations outside every area of a world, which holds only
+     * its fallback regions. Needs no lookup.
+     * @param world the world
+     * @return the world's unclaimed set
+     */
+    @NotNull
+    public AreaSet getUnclaimedSet(@NotNull World world) {
+        return getOrCreateAreaSets(world).getEmptySet();
+    }
+    
+    /**
+     * Check whether any area may contain blocks of a chunk, from the areas'
+     * horizontal bounds alone. Fallback regions don't count. If this returns
+     * false, every block of the chunk resolves to {@link #getUnclaimedSet(World)}.
+     * @param world the world
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     * @return true if the chunk may hold area blocks
+     */
+    public boolean hasAreasInChunk(@NotNull World world, int chunkX, int chunkZ) {
+        SpatialIndex index = indexByWorld.get(world);
+        return index != null && index.intersectsChunk(chunkX, chunkZ);
+    }
+    
+    /**
+     * Check whether a flag is allowed at a block position.
+     * Runs the lookup and flag resolution on primitives, so the check doesn't allocate.
+     * @param world the world
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @param flag the flag
+     * @param player the player (nullable)
+     * @return the effective flag value
+     */
+    public boolean isAllowed(@NotNull World world, int x, int y, int z, @NotNull Flag flag,
+                             @Nullable Player player) {
+        return getAreaSetAt(world, x, y, z).isAllowed(flag, player);
+    }
+    
+    /**
+     * Check whether a flag is allowed at a point.
+     * @param world the world
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @param flag the flag
+     * @param player the player (nullable)
+     * @return the effective flag value
+     */
+    public boolean isAllowed(@NotNull World world, double x, double y, double z, @NotNull Flag flag,
+                             @Nullable Player player) {
+        return getAreaSetAt(world, x, y, z).isAllowed(flag, player);
     }
     
     /**
@@ -198,8 +825,16 @@ public class AreaManager {
      */
     public boolean getFlagValueAtLocation(@NotNull Location location, @NotNull String flagName,
                                           @Nullable Player player) {
-        List<Area> areas = getAreasAtLocation(location);
-        return FlagResolver.getEffectiveFlagValue(areas, flagName, player);
+        AreaSet areaSet = getAreaSetAt(location);
+        Flag flag = Flag.byName(flagName);
+        if (flag != null) {
+            return areaSet.isAllowed(flag, player);
+        }
+        GroupFlag groupFlag = GroupFlag.byName(flagName);
+        if (groupFlag != null) {
+            return areaSet.isAllowed(groupFlag, areaSet.getSubjectGroup(player));
+        }
+        return true;
     }
     
     /**
@@ -211,8 +846,19 @@ public class AreaManager {
     @NotNull
     public Map<String, Boolean> getAllFlagValuesAtLocation(@NotNull Location location,
                                                            @Nullable Player player) {
-        List<Area> areas = getAreasAtLocation(location);
-        return FlagResolver.getAllEffectiveFlagValues(areas, player);
+        return getEffectiveFlagsAt(location, player).toNameMap();
+    }
+    
+    /**
+     * Get the effective value of every flag and group flag at a location, resolved
+     * in one pass. Prefer this over per-flag lookups when reading many flags.
+     * @param location the location
+     * @param player the player (nullable)
+     * @return the effective flag values
+     */
+    @NotNull
+    public EffectiveFlags getEffectiveFlagsAt(@NotNull Location location, @Nullable Player player) {
+        return getAreaSetAt(location).getEffectiveFlags(player);
     }
     
     /**
@@ -405,12 +1051,119 @@ public class AreaManager {
     }
     
     /**
-     * Clear all areas.
+     * Clear all areas and fallback regions.
      */
     public void clear() {
+        List<Area> removed = new ArrayList<>(areasByName.values());
+        synchronized (worldRegions) {
+            removed.addAll(getFallbackRegions());
+            worldRegions.clear();
+            globalRegion = null;
+        }
         areasByName.clear();
         areasByWorld.clear();
+        indexByWorld.clear();
+        areaSetsByWorld.clear();
+        for (ChunkClassifier chunks : chunksByWorld.values()) {
+            chunks.invalidate();
+        }
         areasByOwner.clear();
+        for (Area area : removed) {
+            area.attach(null);
+            publish(AreaChangeEvent.Type.REMOVED, area, null);
+        }
+    }
+    
+    /**
+     * Get the modification epoch. It increases with every change to any area,
+     * including flag and membership changes made directly on {@link Area}.
+     * @return the current epoch
+     */
+    public long getEpoch() {
+        return epoch.get();
+    }
+    
+    /**
+     * Get the modification version of a world, which increases with every
+     * change to one of its areas, its world region or the global region.
+     * @param worldName the world name
+     * @return the world version, 0 if none of those ever changed
+     */
+    public long getWorldVersion(@NotNull String worldName) {
+        AtomicLong version = worldVersions.get(worldName);
+        AtomicLong global = worldName.equals(Area.ALL_WORLDS) ? null : worldVersions.get(Area.ALL_WORLDS);
+        return (version != null ? version.get() : 0) + (global != null ? global.get() : 0);
+    }
+    
+    /**
+     * Install newly compiled flag defaults. Bumps the epoch and every world
+     * version; flag tables pick the new defaults up on their next read.
+     * @param flagDefaults the compiled defaults
+     */
+    public void setFlagDefaults(@NotNull FlagDefaults flagDefaults) {
+        FlagResolver.setDefaults(flagDefaults);
+        flagUsage.setDefaults(flagDefaults);
+        epoch.incrementAndGet();
+        for (AtomicLong version : worldVersions.values()) {
+            version.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Get the reference counts of flags set by areas and fallback regions.
+     * @return the flag usage table
+     */
+    @NotNull
+    public FlagUsage getFlagUsage() {
+        return flagUsage;
+    }
+    
+    /**
+     * Subscribe to area changes. Listeners run synchronously on the thread
+     * that made the change and must not throw.
+     * @param listener the listener
+     */
+    public void addChangeListener(@NotNull AreaChangeListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Unsubscribe from area changes.
+     * @param listener the listener
+     * @return true if it was subscribed
+     */
+    public boolean removeChangeListener(@NotNull AreaChangeListener listener) {
+        return listeners.remove(listener);
+    }
+    
+    /**
+     * Record a change and notify listeners.
+     */
+    void publish(@NotNull AreaChangeEvent.Type type, @NotNull Area area, @Nullable Area previousArea) {
+        switch (type) {
+            case ADDED:
+            case FLAGS_CHANGED:
+                flagUsage.update(area);
+                break;
+            case REMOVED:
+                flagUsage.remove(area);
+                break;
+            case BOUNDS_CHANGED:
+                flagUsage.remove(previousArea);
+                flagUsage.update(area);
+                break;
+            default:
+                break;
+        }
+        long current = epoch.incrementAndGet();
+        worldVersions.computeIfAbsent(area.getWorldName(), k -> new AtomicLong()).incrementAndGet();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        AreaChangeEvent event = new AreaChangeEvent(type, area, previousArea, current);
+        for (AreaChangeListener listener : listeners) {
+            listener.onAreaChange(event);
+        }
     }
     
     /**
@@ -421,6 +1174,32 @@ public class AreaManager {
         return areasByName.size();
     }
     
+    /**
+     * Get the number of interned area combinations across all worlds.
+     * @return the set count
+     */
+    public int getAreaSetCount() {
+        int count = 0;
+        for (AreaSetInterner areaSets : areaSetsByWorld.values()) {
+            count += areaSets.size();
+        }
+        return count;
+    }
+    
+    /**
+     * Get the number of area combinations evicted because a world reached
+     * {@code performance.region-cache-size}. A steadily growing count means the
+     * limit is too low for the server's overlaps.
+     * @return the eviction count
+     */
+    public long getAreaSetEvictions() {
+        long evictions = 0;
+        for (AreaSetInterner areaSets : areaSetsByWorld.values()) {
+            evictions += areaSets.getEvictions();
+        }
+        return evictions;
+    }
+    
     /**
      * Get area count by world.
      * @param world the world
@@ -430,4 +1209,92 @@ public class AreaManager {
         List<Area> areas = areasByWorld.get(world);
         return areas != null ? areas.size() : 0;
     }
+    
+    /**
+     * Get the spatial index type used for new worlds.
+     * @return the index type
+     */
+    @NotNull
+    public SpatialIndex.Type getIndexType() {
+        return indexType;
+    }
+    
+    /**
+     * Insert an area into a list kept in resolution order.
+     */
+    private static void insertSorted(@NotNull List<Area> areas, @NotNull Area area) {
+        int index = Collections.binarySearch(areas, area, Area.RESOLUTION_ORDER);
+        areas.add(index < 0 ? -index - 1 : index, area);
+    }
+    
+    /**
+     * Attach a column bitmap to polygon areas with enough vertices to benefit from one.
+     */
+    private void rasterize(@NotNull Area area) {
+        if (rasterMinVertices <= 0 || area.getShape() != Area.Shape.POLYGON
+            || area.getPolygonPoints().size() < rasterMinVertices) {
+            return;
+        }
+        area.setRaster(PolygonRaster.build(area.getKernel(), area.getStyle(), area.getBorderThickness()));
+    }
+    
+    @NotNull
+    private AreaSetInterner getOrCreateAreaSets(@NotNull World world) {
+        AreaSetInterner areaSets = areaSetsByWorld.get(world);
+        return areaSets != null ? areaSets : areaSetsByWorld.computeIfAbsent(world,
+            k -> new AreaSetInterner(maxAreaSets, maxCachedSubjects, world.getName(), fallbacksOf(world.getName())));
+    }
+    
+    /**
+     * Get a world's chunk classifications.
+     * @return the classifier, or null if the chunk cache is disabled
+     */
+    @Nullable
+    private ChunkClassifier getOrCreateChunks(@NotNull World world) {
+        if (chunkCacheSize == 0) {
+            return null;
+        }
+        ChunkClassifier chunks = chunksByWorld.get(world);
+        return chunks != null ? chunks : chunksByWorld.computeIfAbsent(world,
+            k -> new ChunkClassifier(chunkCacheSize, world.getMinHeight(), world.getMaxHeight()));
+    }
+    
+    /**
+     * Retire the chunk classifications of a world after its areas changed.
+     */
+    private void invalidateChunks(@NotNull World world) {
+        ChunkClassifier chunks = chunksByWorld.get(world);
+        if (chunks != null) {
+            chunks.invalidate();
+        }
+    }
+    
+    /**
+     * Get the fallback regions of a world, world region first.
+     */
+    @NotNull
+    private Area[] fallbacksOf(@NotNull String worldName) {
+        Area world = worldRegions.get(worldName);
+        Area global = globalRegion;
+        if (world == null) {
+            return global == null ? new Area[0] : new Area[]{global};
+        }
+        return global == null ? new Area[]{world} : new Area[]{world, global};
+    }
+    
+    @NotNull
+    private SpatialIndex getOrCreateIndex(@NotNull World world) {
+        return indexByWorld.computeIfAbsent(world, k -> createIndex());
+    }
+    
+    @NotNull
+    private SpatialIndex createIndex() {
+        switch (indexType) {
+            case RTREE:
+                return new RTreeSpatialIndex();
+            case GRID:
+            default:
+                return new GridSpatialIndex(gridCellSize);
+        }
+    }
 }
\ No newline at end of file
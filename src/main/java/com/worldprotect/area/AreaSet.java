@@ -0,0 +1,457 @@
+package com.worldprotect.area;
+
+import com.worldprotect.flags.EffectiveFlags;
+import com.worldprotect.flags.Flag;
+import com.worldprotect.flags.FlagResolver;
+import com.worldprotect.flags.GroupFlag;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable combination of overlapping areas, in resolution order, followed
+ * by the fallback regions of their world.
+ *
+ * <p>A server has far fewer distinct overlap combinations than locations, so
+ * {@link AreaManager} interns one instance per combination and every location
+ * covered by the same areas shares it. Each set lazily builds a table of
+ * effective flag values per {@link FlagResolver.SubjectGroup}, which turns flag
+ * resolution into a single bit test. The table is stamped with the sum of its
+ * members' flag versions and rebuilt when any member's flags change. Players'
+ * subject groups are cached the same way against the membership versions of
+ * the areas, or of the fallback regions for sets without areas.</p>
+ */
+public final class AreaSet {
+
+    /** The set for locations outside every area, in no particular world. */
+    public static final AreaSet EMPTY = new AreaSet(new Area[0], new Area[0], null, 0);
+
+    private static final int GROUPS = FlagResolver.SubjectGroup.values().length;
+
+    private final Area[] areas;
+    private final Area[] fallbacks;
+    // Areas then fallback regions: everything that resolves flags and membership
+    private final Area[] members;
+    // Areas whose owners and members decide the subject group: the fallback
+    // regions' membership only counts where no area applies
+    private final Area[] subjects;
+    private final String worldName;
+    private final List<Area> areaList;
+    private final List<Area> resolutionOrder;
+    private final int hash;
+    private volatile Table table;
+    // Subject group per player, stamped with the members' membership versions
+    private final Map<UUID, CachedSubjectGroup> subjectGroups = new ConcurrentHashMap<>();
+    private final int maxCachedSubjects;
+    // Cached players in clock order, allocated on first use; guarded by subjectGroups
+    private UUID[] subjectRing;
+    private int subjectCount;
+    private int subjectHand;
+    // Clock mark of the interner, set whenever a lookup finds this set
+    private boolean referenced;
+
+    /**
+     * @param areas the areas in resolution order
+     * @param fallbacks the world's fallback regions, world region first; shared by
+     *                  every set of the world
+     * @param worldName the world whose flag defaults apply, or null for none
+     * @param maxCachedSubjects maximum players whose subject group is cached
+     *                          ({@code performance.flag-cache-size}, 0 disables)
+     */
+    AreaSet(@NotNull Area[] areas, @NotNull Area[] fallbacks, @Nullable String worldName, int maxCachedSubjects) {
+        this.areas = areas;
+        this.fallbacks = fallbacks;
+        this.worldName = worldName;
+        this.maxCachedSubjects = maxCachedSubjects;
+        this.areaList = areas.length == 1
+            ? Collections.singletonList(areas[0])
+            : Collections.unmodifiableList(Arrays.asList(areas));
+        if (fallbacks.length == 0) {
+            this.members = areas;
+            this.resolutionOrder = areaList;
+        } else {
+            this.members = Arrays.copyOf(areas, areas.length + fallbacks.length);
+            System.arraycopy(fallbacks, 0, members, areas.length, fallbacks.length);
+            this.resolutionOrder = Collections.unmodifiableList(Arrays.asList(members));
+        }
+        this.subjects = areas.length > 0 ? areas : fallbacks;
+        this.hash = hashOf(areas, areas.length);
+    }
+
+    /**
+     * Get the areas in resolution order, without fallback regions.
+     * @return unmodifiable list of areas
+     */
+    @NotNull
+    public List<Area> getAreas() {
+        return areaList;
+    }
+
+    /**
+     * Get the world and global regions that apply below the areas.
+     * @return unmodifiable list of fallback regions, world region first
+     */
+    @NotNull
+    public List<Area> getFallbackRegions() {
+        return resolutionOrder.subList(areas.length, members.length);
+    }
+
+    /**
+     * Get everything flags are resolved from: the areas, then the fallback regions.
+     * @return unmodifiable list in resolution order
+     */
+    @NotNull
+    public List<Area> getResolutionOrder() {
+        return resolutionOrder;
+    }
+
+    /**
+     * Get the number of areas, without fallback regions.
+     * @return the area count
+     */
+    public int size() {
+        return areas.length;
+    }
+
+    /**
+     * Check whether no area contains the location. Fallback regions may still apply.
+     * @return true if the location is unclaimed
+     */
+    public boolean isEmpty() {
+        return areas.length == 0;
+    }
+
+    /**
+     * Get the world whose flag defaults apply to this set.
+     * @return the world name, or null for {@link #EMPTY}
+     */
+    @Nullable
+    public String getWorldName() {
+        return worldName;
+    }
+
+    /**
+     * Check whether an area or fallback region is part of this set.
+     * @param area the area
+     * @return true if the area is a member
+     */
+    public boolean contains(@NotNull Area area) {
+        for (Area member : members) {
+            if (member == area) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether another set holds the same areas. Interned sets are compared
+     * by identity; only sets evicted from the interner need the element check.
+     * @param other the other set
+     * @return true if both hold the same areas in the same order
+     */
+    public boolean hasSameAreas(@NotNull AreaSet other) {
+        return other == this || (other.hash == hash && matches(other.areas, other.areas.length));
+    }
+
+    /**
+     * Get the effective value of an atomic flag.
+     * @param flag the flag
+     * @param player the player to check membership for (nullable)
+     * @return the effective flag value
+     */
+    public boolean isAllowed(@NotNull Flag flag, @Nullable Player player) {
+        return isAllowed(flag, getSubjectGroup(player));
+    }
+
+    /**
+     * Get the effective value of an atomic flag for a subject group.
+     * @param flag the flag
+     * @param subjectGroup the subject group
+     * @return the effective flag value
+     */
+    public boolean isAllowed(@NotNull Flag flag, @NotNull FlagResolver.SubjectGroup subjectGroup) {
+        return getTable().flags[subjectGroup.ordinal()].isAllowed(flag);
+    }
+
+    /**
+     * Get the effective value of a group flag for a subject group.
+     * @param groupFlag the group flag
+     * @param subjectGroup the subject group
+     * @return the effective group flag value
+     */
+    public boolean isAllowed(@NotNull GroupFlag groupFlag, @NotNull FlagResolver.SubjectGroup subjectGroup) {
+        return getTable().flags[subjectGroup.ordinal()].isAllowed(groupFlag);
+    }
+
+    /**
+     * Get the effective value of every flag and group flag for a player.
+     * The result is cached with the set, so repeated calls do not allocate.
+     * @param player the player to check membership for (nullable)
+     * @return the effective flag values
+     */
+    @NotNull
+    public EffectiveFlags getEffectiveFlags(@Nullable Player player) {
+        return getEffectiveFlags(getSubjectGroup(player));
+    }
+
+    /**
+     * Get the effective value of every flag and group flag for a subject group.
+     * @param subjectGroup the subject group
+     * @return the effective flag values
+     */
+    @NotNull
+    public EffectiveFlags getEffectiveFlags(@NotNull FlagResolver.SubjectGroup subjectGroup) {
+        return getTable().flags[subjectGroup.ordinal()];
+    }
+
+    /**
+     * Determine a player's subject group relative to this set.
+     * Membership of the fallback regions only counts when the set has no areas,
+     * so members of the world region get no member rights inside claims.
+     * @param player the player (nullable)
+     * @return owner if they own any area, member if they are a member of any, else nonmember
+     */
+    @NotNull
+    public FlagResolver.SubjectGroup getSubjectGroup(@Nullable Player player) {
+        if (player == null || subjects.length == 0) {
+            return FlagResolver.SubjectGroup.NONMEMBER;
+        }
+        UUID playerId = player.getUniqueId();
+        if (maxCachedSubjects <= 0) {
+            return findSubjectGroup(playerId);
+        }
+        
+        long stamp = membershipStamp();
+        CachedSubjectGroup cached = subjectGroups.get(playerId);
+        if (cached != null && cached.stamp == stamp) {
+            if (!cached.referenced) {
+                cached.referenced = true;
+            }
+            return cached.subjectGroup;
+        }
+        FlagResolver.SubjectGroup subjectGroup = findSubjectGroup(playerId);
+        cacheSubjectGroup(playerId, new CachedSubjectGroup(stamp, subjectGroup));
+        return subjectGroup;
+    }
+
+    /**
+     * Store a player's subject group. Once the cache is full, the entry of a
+     * player who wasn't looked up since the clock hand last passed is evicted,
+     * the same way the interner evicts sets.
+     */
+    private void cacheSubjectGroup(@NotNull UUID playerId, @NotNull CachedSubjectGroup entry) {
+        synchronized (subjectGroups) {
+            if (subjectGroups.put(playerId, entry) != null) {
+                // A stale entry was replaced; the player keeps their ring slot
+                return;
+            }
+            if (subjectCount < maxCachedSubjects) {
+                if (subjectRing == null) {
+                    subjectRing = new UUID[Math.min(16, maxCachedSubjects)];
+                } else if (subjectCount == subjectRing.length) {
+                    subjectRing = Arrays.copyOf(subjectRing, Math.min(subjectCount * 2, maxCachedSubjects));
+                }
+                subjectRing[subjectCount++] = playerId;
+                return;
+            }
+            
+            // Two laps at most: the first clears every mark it passes
+            int position = subjectHand;
+            for (int step = 0; step < 2 * subjectCount; step++) {
+                CachedSubjectGroup candidate = subjectGroups.get(subjectRing[position]);
+                if (candidate == null || !candidate.referenced) {
+                    break;
+                }
+                candidate.referenced = false;
+                position = (position + 1) % subjectCount;
+            }
+            subjectGroups.remove(subjectRing[position]);
+            subjectRing[position] = playerId;
+            subjectHand = (position + 1) % subjectCount;
+        }
+    }
+
+    /**
+     * Get the number of players whose subject group is cached.
+     */
+    int getCachedSubjectCount() {
+        return subjectGroups.size();
+    }
+
+    @NotNull
+    private FlagResolver.SubjectGroup findSubjectGroup(@NotNull UUID playerId) {
+        for (Area area : subjects) {
+            if (area.isOwner(playerId)) {
+                return FlagResolver.SubjectGroup.OWNER;
+            }
+        }
+        for (Area area : subjects) {
+            if (area.isMember(playerId)) {
+                return FlagResolver.SubjectGroup.MEMBER;
+            }
+        }
+        return FlagResolver.SubjectGroup.NONMEMBER;
+    }
+
+    @NotNull
+    private Table getTable() {
+        long stamp = stamp();
+        Table current = table;
+        if (current == null || current.stamp != stamp) {
+            // Races only rebuild the same table twice
+            current = new Table(stamp, worldName, resolutionOrder);
+            table = current;
+        }
+        return current;
+    }
+
+    private long membershipStamp() {
+        long stamp = 0;
+        for (Area area : subjects) {
+            stamp += area.getMembershipVersion();
+        }
+        return stamp;
+    }
+
+    private long stamp() {
+        // Defaults versions only grow too, so a reload changes the sum
+        long stamp = FlagResolver.getDefaults().getVersion();
+        for (Area area : members) {
+            stamp += area.getFlagVersion();
+        }
+        return stamp;
+    }
+
+    /**
+     * Mark this set as recently used, for the interner's eviction.
+     * Races only lose a mark, so the field needs no synchronization.
+     * @return this set
+     */
+    @NotNull
+    AreaSet reference() {
+        if (!referenced) {
+            referenced = true;
+        }
+        return this;
+    }
+
+    /**
+     * Clear the mark set by {@link #reference()}.
+     * @return whether the set was marked
+     */
+    boolean clearReference() {
+        boolean wasReferenced = referenced;
+        referenced = false;
+        return wasReferenced;
+    }
+
+    /**
+     * Check whether this set was built with a world's current fallback regions.
+     * @param current the fallback array the world's interner hands out
+     */
+    boolean hasFallbacks(@NotNull Area[] current) {
+        return fallbacks == current;
+    }
+
+    /**
+     * Check whether this set holds exactly the candidates selected by a bit mask.
+     * @param candidates candidate areas in resolution order
+     * @param mask bit i set if candidates[i] is a hit (candidates beyond 64 are not supported)
+     * @param count the number of set bits
+     */
+    boolean matches(@NotNull Area[] candidates, long mask, int count) {
+        if (count != areas.length) {
+            return false;
+        }
+        int position = 0;
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            if (areas[position++] != candidates[Long.numberOfTrailingZeros(bits)]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether this set holds exactly the given areas.
+     */
+    boolean matches(@NotNull Area[] hits, int count) {
+        if (count != areas.length) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (areas[i] != hits[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int hashOf(@NotNull Area[] areas, int count) {
+        int hash = 1;
+        for (int i = 0; i < count; i++) {
+            hash = 31 * hash + System.identityHashCode(areas[i]);
+        }
+        return hash;
+    }
+
+    static int hashOf(@NotNull Area[] candidates, long mask) {
+        int hash = 1;
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            hash = 31 * hash + System.identityHashCode(candidates[Long.numberOfTrailingZeros(bits)]);
+        }
+        return hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("AreaSet[");
+        for (int i = 0; i < members.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(members[i].getName());
+        }
+        return builder.append(']').toString();
+    }
+
+    private static final class CachedSubjectGroup {
+        final long stamp;
+        final FlagResolver.SubjectGroup subjectGroup;
+        // Clock mark, set by hits; races only lose a mark
+        boolean referenced;
+
+        CachedSubjectGroup(long stamp, @NotNull FlagResolver.SubjectGroup subjectGroup) {
+            this.stamp = stamp;
+            this.subjectGroup = subjectGroup;
+        }
+    }
+
+    /**
+     * Effective flag values for each subject group, indexed by ordinal.
+     */
+    private static final class Table {
+        final long stamp;
+        final EffectiveFlags[] flags = new EffectiveFlags[GROUPS];
+
+        Table(long stamp, @Nullable String worldName, @NotNull List<Area> areas) {
+            this.stamp = stamp;
+            for (FlagResolver.SubjectGroup subjectGroup : FlagResolver.SubjectGroup.values()) {
+                flags[subjectGroup.ordinal()] = FlagResolver.resolveAll(worldName, areas, subjectGroup);
+            }
+        }
+    }
+}
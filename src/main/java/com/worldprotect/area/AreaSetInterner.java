@@ -0,0 +1,280 @@
+package com.worldprotect.area;
+
+import com.worldprotect.util.LongObjectMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Interns the multi-area {@link AreaSet}s of a single world.
+ *
+ * <p>Sets are bucketed by the identity hash of their members. Lookups read an
+ * immutable snapshot and compare candidates in place, so finding an existing set
+ * does not allocate. New combinations go into a writer-side table and a short
+ * list of recent sets that lookups scan after the snapshot; the table is
+ * copied into a new snapshot only once that list is full, so interning costs
+ * the table size once per {@value #PUBLISH_BATCH} new sets rather than on each.</p>
+ *
+ * <p>Once the interner is full, each new combination evicts an old one chosen
+ * by the clock algorithm: a hit marks a set as referenced, and the clock hand
+ * sweeps over the sets in insertion order, clearing marks until it finds an
+ * unmarked set to replace. Sets that are looked up keep their place.</p>
+ */
+final class AreaSetInterner {
+
+    // New sets collected before the writer table is published as a snapshot
+    static final int PUBLISH_BATCH = 64;
+    private static final AreaSet[] NO_SETS = new AreaSet[0];
+
+    private final int maxSize;
+    private final int maxCachedSubjects;
+    private final String worldName;
+    private final Area[] fallbacks;
+    private final AreaSet emptySet;
+    private volatile LongObjectMap<AreaSet[]> buckets = new LongObjectMap<>();
+    // Sets interned since the snapshot, copied on write
+    private volatile AreaSet[] recent = NO_SETS;
+    // Writer-side buckets, updated in place; guarded by this
+    private LongObjectMap<AreaSet[]> table = new LongObjectMap<>();
+    // Interned sets in clock order; guarded by this
+    private AreaSet[] ring = new AreaSet[16];
+    private int size;
+    private int hand;
+    private volatile long evictions;
+
+    /**
+     * @param maxSize maximum number of interned sets ({@code performance.region-cache-size});
+     *                beyond it old combinations are evicted, and 0 disables interning
+     * @param maxCachedSubjects subject group cache size of each set
+     * @param worldName the world
+     * @param fallbacks the world's fallback regions, world region first. An interner
+     *                  is replaced rather than updated when they change.
+     */
+    AreaSetInterner(int maxSize, int maxCachedSubjects, @NotNull String worldName, @NotNull Area[] fallbacks) {
+        this.maxSize = maxSize;
+        this.maxCachedSubjects = maxCachedSubjects;
+        this.worldName = worldName;
+        this.fallbacks = fallbacks;
+        this.emptySet = new AreaSet(new Area[0], fallbacks, worldName, maxCachedSubjects);
+    }
+    
+    /**
+     * Build a set of this world's areas. The caller interns it if it should be shared.
+     * @param hits the areas in resolution order
+     */
+    @NotNull
+    AreaSet create(@NotNull Area[] hits) {
+        return new AreaSet(hits, fallbacks, worldName, maxCachedSubjects);
+    }
+    
+    /**
+     * Get the fallback regions every set of this interner ends with.
+     */
+    @NotNull
+    Area[] getFallbacks() {
+        return fallbacks;
+    }
+    
+    /**
+     * Get the world's set for locations outside every area. It carries the
+     * world's fallback regions and flag defaults, unlike {@link AreaSet#EMPTY}.
+     */
+    @NotNull
+    AreaSet getEmptySet() {
+        return emptySet;
+    }
+
+    /**
+     * Find the set holding exactly the masked candidates.
+     */
+    @Nullable
+    AreaSet find(@NotNull Area[] candidates, long mask, int count, int hash) {
+        AreaSet[] bucket = buckets.get(hash);
+        if (bucket != null) {
+            for (AreaSet set : bucket) {
+                if (set.matches(candidates, mask, count)) {
+                    return set.reference();
+                }
+            }
+        }
+        for (AreaSet set : recent) {
+            if (set.hashCode() == hash && set.matches(candidates, mask, count)) {
+                return set.reference();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the set holding exactly the given areas.
+     */
+    @Nullable
+    AreaSet find(@NotNull Area[] hits, int count, int hash) {
+        AreaSet[] bucket = buckets.get(hash);
+        if (bucket != null) {
+            for (AreaSet set : bucket) {
+                if (set.matches(hits, count)) {
+                    return set.reference();
+                }
+            }
+        }
+        for (AreaSet set : recent) {
+            if (set.hashCode() == hash && set.matches(hits, count)) {
+                return set.reference();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Intern a newly built set, unless an equal one was interned concurrently.
+     * @param created the new set
+     * @return the interned set
+     */
+    @NotNull
+    synchronized AreaSet intern(@NotNull AreaSet created) {
+        // The writer table is authoritative; the snapshot may still hold evicted sets
+        Area[] members = created.getAreas().toArray(new Area[0]);
+        AreaSet[] bucket = table.get(created.hashCode());
+        if (bucket != null) {
+            for (AreaSet set : bucket) {
+                if (set.matches(members, members.length)) {
+                    return set.reference();
+                }
+            }
+        }
+        if (maxSize == 0) {
+            return created;
+        }
+        int slot;
+        if (size >= maxSize) {
+            slot = evict();
+        } else {
+            if (size == ring.length) {
+                ring = Arrays.copyOf(ring, Math.min(size * 2, maxSize));
+            }
+            slot = size++;
+        }
+        ring[slot] = created;
+        bucket = table.get(created.hashCode());
+        AreaSet[] grown;
+        if (bucket == null) {
+            grown = new AreaSet[]{created};
+        } else {
+            grown = new AreaSet[bucket.length + 1];
+            System.arraycopy(bucket, 0, grown, 0, bucket.length);
+            grown[bucket.length] = created;
+        }
+        table.put(created.hashCode(), grown);
+        
+        AreaSet[] pending = recent;
+        if (pending.length + 1 >= PUBLISH_BATCH) {
+            publish();
+        } else {
+            AreaSet[] added = Arrays.copyOf(pending, pending.length + 1);
+            added[pending.length] = created;
+            recent = added;
+        }
+        return created;
+    }
+
+    /**
+     * Replace the snapshot with a copy of the writer table and drop the recent
+     * sets it now holds. A lookup racing this may miss a set in both, and then
+     * gets it back from {@link #intern}, which checks the writer table.
+     */
+    private void publish() {
+        buckets = table.copy();
+        recent = NO_SETS;
+    }
+
+    /**
+     * Remove the first unreferenced set at or after the clock hand, clearing the
+     * marks of the referenced sets passed on the way. The hand stops past it, so
+     * the set that takes its slot gets a full lap before it can be evicted.
+     * @return the freed ring slot
+     */
+    private int evict() {
+        // Two laps at most: the first clears every mark it passes
+        AreaSet victim = null;
+        int position = hand % size;
+        for (int step = 0; step < 2 * size; step++) {
+            AreaSet set = ring[position];
+            if (!set.clearReference()) {
+                victim = set;
+                break;
+            }
+            position = (position + 1) % size;
+        }
+        if (victim == null) {
+            victim = ring[position];
+        }
+        
+        hand = (position + 1) % size;
+        // Lookups may keep finding the victim in the snapshot until the next publish
+        AreaSet[] bucket = table.get(victim.hashCode());
+        if (bucket.length == 1) {
+            table.remove(victim.hashCode());
+        } else {
+            AreaSet[] shrunk = new AreaSet[bucket.length - 1];
+            int count = 0;
+            for (AreaSet set : bucket) {
+                if (set != victim) {
+                    shrunk[count++] = set;
+                }
+            }
+            table.put(victim.hashCode(), shrunk);
+        }
+        evictions++;
+        return position;
+    }
+
+    /**
+     * Drop every set that contains an area, e.g. after the area was removed.
+     * @param area the area
+     */
+    synchronized void removeContaining(@NotNull Area area) {
+        LongObjectMap<AreaSet[]> updated = new LongObjectMap<>(table.size());
+        table.forEach((hash, bucket) -> {
+            int count = 0;
+            AreaSet[] filtered = new AreaSet[bucket.length];
+            for (AreaSet set : bucket) {
+                if (!set.contains(area)) {
+                    filtered[count++] = set;
+                }
+            }
+            if (count > 0) {
+                updated.put(hash, count == bucket.length ? bucket : Arrays.copyOf(filtered, count));
+            }
+        });
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!ring[i].contains(area)) {
+                ring[count++] = ring[i];
+            }
+        }
+        Arrays.fill(ring, count, size, null);
+        size = count;
+        hand = 0;
+        // Publish at once, so no lookup returns a set with the area
+        table = updated;
+        publish();
+    }
+
+    /**
+     * Get the number of interned sets.
+     * @return the set count
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of sets evicted to make room for new combinations.
+     * @return the eviction count
+     */
+    long getEvictions() {
+        return evictions;
+    }
+}
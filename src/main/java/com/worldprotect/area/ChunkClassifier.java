@@ -0,0 +1,180 @@
+package com.worldprotect.area;
+
+import com.worldprotect.util.LongObjectMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Remembers the {@link ChunkCoverage} of the chunks of one world, with the
+ * area set of empty and uniform chunks, so lookups there skip the index and
+ * every containment check.
+ *
+ * <p>The table is direct-mapped: each chunk has one slot and a newer chunk
+ * replaces whatever held it, which bounds memory without bookkeeping. Slots
+ * hold immutable entries, so reads don't lock and a lost race only costs a
+ * reclassification. Entries carry the generation they were classified in;
+ * {@link #invalidate()} retires all of them at once.</p>
+ */
+final class ChunkClassifier {
+
+    /**
+     * One classified chunk.
+     */
+    static final class Entry {
+        final long key;
+        final int generation;
+        final ChunkCoverage coverage;
+        /** The set of every point of the chunk, null for {@link ChunkCoverage#MIXED}. */
+        @Nullable final AreaSet set;
+
+        Entry(long key, int generation, @NotNull ChunkCoverage coverage, @Nullable AreaSet set) {
+            this.key = key;
+            this.generation = generation;
+            this.coverage = coverage;
+            this.set = set;
+        }
+    }
+
+    private final Entry[] slots;
+    private final int mask;
+    private final int minY;
+    private final int topY;
+    private volatile int generation;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     *                 ({@code performance.chunk-cache-size})
+     * @param minY the world's lowest block y
+     * @param maxY the world's build limit, exclusive
+     */
+    ChunkClassifier(int capacity, int minY, int maxY) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new Entry[Math.min(size, 1 << 20)];
+        this.mask = slots.length - 1;
+        this.minY = minY;
+        this.topY = maxY - 1;
+    }
+
+    /**
+     * Get the current generation. Read it before the index and the interner, so
+     * an entry classified from state that changes meanwhile is stored as stale.
+     */
+    int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Retire every entry, e.g. after an area of the world was added or removed.
+     */
+    synchronized void invalidate() {
+        generation++;
+    }
+
+    /**
+     * Check whether classifications apply at a height. Above and below the
+     * world, areas may end where the world does.
+     */
+    boolean isInHeight(double y) {
+        return y >= minY && y <= topY;
+    }
+
+    /**
+     * Get the world's lowest block y, where uniform chunks are probed.
+     */
+    int getMinY() {
+        return minY;
+    }
+
+    /**
+     * Get the current entry of a chunk.
+     * @return the entry, or null if the chunk is not classified
+     */
+    @Nullable
+    Entry get(int chunkX, int chunkZ) {
+        long key = LongObjectMap.key(chunkX, chunkZ);
+        Entry entry = slots[slot(key)];
+        return entry != null && entry.key == key && entry.generation == generation ? entry : null;
+    }
+
+    /**
+     * Store the classification of a chunk.
+     * @param generation the generation read before classifying
+     * @return the stored entry
+     */
+    @NotNull
+    Entry put(int chunkX, int chunkZ, int generation, @NotNull ChunkCoverage coverage, @Nullable AreaSet set) {
+        long key = LongObjectMap.key(chunkX, chunkZ);
+        Entry entry = new Entry(key, generation, coverage, set);
+        slots[slot(key)] = entry;
+        return entry;
+    }
+
+    /**
+     * Classify a chunk over the full world height.
+     * @param candidates the chunk's candidates, from {@link SpatialIndex#queryChunk}
+     * @return {@link ChunkCoverage#EMPTY} if no candidate touches the chunk
+     */
+    @NotNull
+    ChunkCoverage classify(@NotNull Area[] candidates, int chunkX, int chunkZ) {
+        return classify(candidates, chunkX << 4, chunkZ << 4, minY, topY);
+    }
+
+    /**
+     * Classify part of a chunk column from the candidates of its index cell.
+     * An area that overlaps the part's bounds must contain all of it, or the
+     * part is mixed.
+     * @param candidates the chunk's candidates, from {@link SpatialIndex#queryChunk}
+     * @param minX the chunk's lowest block x
+     * @param minZ the chunk's lowest block z
+     * @param minY the lowest y of the part
+     * @param maxY the highest y of the part, inclusive
+     * @return {@link ChunkCoverage#EMPTY} if no candidate touches the part
+     */
+    @NotNull
+    static ChunkCoverage classify(@NotNull Area[] candidates, int minX, int minZ, int minY, int maxY) {
+        ChunkCoverage coverage = ChunkCoverage.EMPTY;
+        for (Area area : candidates) {
+            if (area.getMaxX() < minX || area.getMinX() >= minX + 16
+                || area.getMaxZ() < minZ || area.getMinZ() >= minZ + 16
+                || area.getMaxY() < minY || area.getMinY() > maxY) {
+                continue;
+            }
+            if (!covers(area, minX, minZ, minY, maxY)) {
+                return ChunkCoverage.MIXED;
+            }
+            coverage = ChunkCoverage.UNIFORM;
+        }
+        return coverage;
+    }
+
+    /**
+     * Check whether an area contains every point of a chunk between two heights.
+     */
+    private static boolean covers(@NotNull Area area, int minX, int minZ, int minY, int maxY) {
+        if (area.getStyle() != Area.Style.FULL
+            || area.getMinY() > minY || area.getMaxY() < maxY
+            || area.getMinX() > minX || area.getMaxX() < minX + 16
+            || area.getMinZ() > minZ || area.getMaxZ() < minZ + 16) {
+            return false;
+        }
+        if (area.getShape() == Area.Shape.POLYGON) {
+            // Polygons test block centers, so every column has to be checked
+            for (int dx = 0; dx < 16; dx++) {
+                for (int dz = 0; dz < 16; dz++) {
+                    if (!area.contains(minX + dx + 0.5, minY, minZ + dz + 0.5)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        // The other shapes are convex, so containing the corners means containing the square
+        return area.contains(minX, minY, minZ) && area.contains(minX + 16, minY, minZ)
+            && area.contains(minX, minY, minZ + 16) && area.contains(minX + 16, minY, minZ + 16);
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
@@ -0,0 +1,14 @@
+package com.worldprotect.area;
+
+/**
+ * How the areas of a world cover one chunk, as recorded by the
+ * {@link AreaManager}'s chunk classification.
+ */
+public enum ChunkCoverage {
+    /** No area comes near the chunk; every block resolves to the unclaimed set. */
+    EMPTY,
+    /** The same areas contain every point of the chunk, over the world's full height. */
+    UNIFORM,
+    /** The chunk holds an area edge or a vertically limited area; lookups test containment. */
+    MIXED
+}
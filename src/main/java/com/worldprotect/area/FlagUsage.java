@@ -0,0 +1,171 @@
+package com.worldprotect.area;
+
+import com.worldprotect.flags.Flag;
+import com.worldprotect.flags.FlagDefaults;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tracks which atomic flags can deny anything, so handlers for the others
+ * don't have to run.
+ *
+ * <p>A flag is in use while at least one area or fallback region gives it a
+ * value, explicitly or through a group flag, or while the flag defaults deny
+ * it somewhere. Areas are reference counted per flag by their
+ * {@link AreaManager}; listeners hear when the set of flags in use changes.</p>
+ */
+public final class FlagUsage {
+
+    /**
+     * Receives changes to the flags in use.
+     */
+    @FunctionalInterface
+    public interface UsageListener {
+
+        /**
+         * Called after flags came into use or went out of use. Runs on the
+         * thread that changed the area or the defaults, like {@link AreaChangeListener}.
+         * @param inUse the flags now in use, indexed by {@link Flag#ordinal()}
+         */
+        void onUsageChange(long inUse);
+    }
+
+    private final int[] counts = new int[Flag.values().length];
+    // The mask each area was last counted with
+    private final Map<Area, Long> counted = new IdentityHashMap<>();
+    private final List<UsageListener> listeners = new CopyOnWriteArrayList<>();
+    private long deniedByDefault;
+    private volatile long inUse;
+
+    /**
+     * @param defaults the flag defaults in effect
+     */
+    FlagUsage(@NotNull FlagDefaults defaults) {
+        this.deniedByDefault = defaults.getDeniedMask();
+        this.inUse = deniedByDefault;
+    }
+
+    /**
+     * Check whether a flag is in use.
+     * @param flag the flag
+     * @return true if some area sets the flag or a default denies it
+     */
+    public boolean isInUse(@NotNull Flag flag) {
+        return (inUse & (1L << flag.ordinal())) != 0;
+    }
+
+    /**
+     * Get the flags in use.
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getInUseMask() {
+        return inUse;
+    }
+
+    /**
+     * Get how many areas and fallback regions give a flag a value.
+     * @param flag the flag
+     * @return the area count
+     */
+    public synchronized int getAreaCount(@NotNull Flag flag) {
+        return counts[flag.ordinal()];
+    }
+
+    /**
+     * Subscribe to changes of the flags in use.
+     * @param listener the listener
+     */
+    public void addListener(@NotNull UsageListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unsubscribe from changes of the flags in use.
+     * @param listener the listener
+     * @return true if it was subscribed
+     */
+    public boolean removeListener(@NotNull UsageListener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Count an area that was added or whose flags changed.
+     */
+    void update(@NotNull Area area) {
+        long changed;
+        synchronized (this) {
+            long used = area.getUsedFlagMask();
+            Long previous = counted.put(area, used);
+            count(previous != null ? previous : 0, used);
+            changed = recompute();
+        }
+        notifyIfChanged(changed);
+    }
+
+    /**
+     * Stop counting a removed area.
+     */
+    void remove(@NotNull Area area) {
+        long changed;
+        synchronized (this) {
+            Long previous = counted.remove(area);
+            if (previous == null) {
+                return;
+            }
+            count(previous, 0);
+            changed = recompute();
+        }
+        notifyIfChanged(changed);
+    }
+
+    /**
+     * Take the flags denied by newly installed defaults.
+     */
+    void setDefaults(@NotNull FlagDefaults defaults) {
+        long changed;
+        synchronized (this) {
+            deniedByDefault = defaults.getDeniedMask();
+            changed = recompute();
+        }
+        notifyIfChanged(changed);
+    }
+
+    private void count(long previous, long used) {
+        for (long bits = previous & ~used; bits != 0; bits &= bits - 1) {
+            counts[Long.numberOfTrailingZeros(bits)]--;
+        }
+        for (long bits = used & ~previous; bits != 0; bits &= bits - 1) {
+            counts[Long.numberOfTrailingZeros(bits)]++;
+        }
+    }
+
+    /**
+     * Rebuild the mask of flags in use.
+     * @return the flags whose state changed
+     */
+    private long recompute() {
+        long used = deniedByDefault;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                used |= 1L << i;
+            }
+        }
+        long changed = used ^ inUse;
+        inUse = used;
+        return changed;
+    }
+
+    private void notifyIfChanged(long changed) {
+        if (changed == 0) {
+            return;
+        }
+        long current = inUse;
+        for (UsageListener listener : listeners) {
+            listener.onUsageChange(current);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.worldprotect.area;
+
+import com.worldprotect.util.LongObjectMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Uniform grid over chunk-aligned cells.
+ *
+ * <p>Each cell holds the areas whose horizontal bounds overlap it, so a lookup
+ * only has to test the few areas near the queried column. Buckets are kept in
+ * resolution order and stored in an immutable snapshot that writers replace,
+ * which keeps reads lock-free and allocation-free.</p>
+ */
+public class GridSpatialIndex implements SpatialIndex {
+
+    private static final Area[] NO_AREAS = new Area[0];
+
+    private final int cellBlocks;
+    private volatile LongObjectMap<Area[]> cells;
+    private int size;
+
+    /**
+     * Create a grid index.
+     * @param cellSizeChunks cell width in chunks ({@code performance.grid-cell-size})
+     */
+    public GridSpatialIndex(int cellSizeChunks) {
+        this.cellBlocks = Math.max(1, cellSizeChunks) * 16;
+        this.cells = new LongObjectMap<>();
+    }
+
+    @Override
+    public synchronized void insert(@NotNull Area area) {
+        LongObjectMap<Area[]> updated = cells.copy();
+        addToCells(updated, area);
+        size++;
+        cells = updated;
+    }
+
+    @Override
+    public synchronized void insertAll(@NotNull Collection<Area> areas) {
+        LongObjectMap<Area[]> updated = cells.copy();
+        for (Area area : areas) {
+            addToCells(updated, area);
+            size++;
+        }
+        cells = updated;
+    }
+
+    @Override
+    public synchronized boolean remove(@NotNull Area area) {
+        LongObjectMap<Area[]> updated = cells.copy();
+        boolean removed = false;
+        int[] range = cellRange(area);
+        for (int cx = range[0]; cx <= range[2]; cx++) {
+            for (int cz = range[1]; cz <= range[3]; cz++) {
+                long key = LongObjectMap.key(cx, cz);
+                Area[] bucket = updated.get(key);
+                if (bucket == null) {
+                    continue;
+                }
+                int index = indexOf(bucket, area);
+                if (index < 0) {
+                    continue;
+                }
+                removed = true;
+                if (bucket.length == 1) {
+                    updated.remove(key);
+                } else {
+                    Area[] shrunk = new Area[bucket.length - 1];
+                    System.arraycopy(bucket, 0, shrunk, 0, index);
+                    System.arraycopy(bucket, index + 1, shrunk, index, bucket.length - index - 1);
+                    updated.put(key, shrunk);
+                }
+            }
+        }
+        if (removed) {
+            size--;
+            cells = updated;
+        }
+        return removed;
+    }
+
+    @NotNull
+    @Override
+    public Area[] query(double x, double z) {
+        Area[] bucket = cells.get(LongObjectMap.key(cellOf(x), cellOf(z)));
+        return bucket != null ? bucket : NO_AREAS;
+    }
+
+    @NotNull
+    @Override
+    public Area[] queryChunk(int chunkX, int chunkZ) {
+        // Cells are whole chunks wide, so the chunk's bucket serves all its columns
+        Area[] bucket = cells.get(LongObjectMap.key(Math.floorDiv(chunkX << 4, cellBlocks),
+            Math.floorDiv(chunkZ << 4, cellBlocks)));
+        return bucket != null ? bucket : NO_AREAS;
+    }
+
+    @Override
+    public boolean intersectsChunk(int chunkX, int chunkZ) {
+        // Cells are whole chunks wide, so the chunk lies in a single cell
+        int minX = chunkX << 4;
+        int minZ = chunkZ << 4;
+        Area[] bucket = cells.get(LongObjectMap.key(Math.floorDiv(minX, cellBlocks), Math.floorDiv(minZ, cellBlocks)));
+        if (bucket == null) {
+            return false;
+        }
+        for (Area area : bucket) {
+            if (area.getMaxX() >= minX && area.getMinX() < minX + 16
+                && area.getMaxZ() >= minZ && area.getMinZ() < minZ + 16) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void clear() {
+        cells = new LongObjectMap<>();
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of non-empty cells.
+     * @return the cell count
+     */
+    public int getCellCount() {
+        return cells.size();
+    }
+
+    private void addToCells(@NotNull LongObjectMap<Area[]> target, @NotNull Area area) {
+        int[] range = cellRange(area);
+        for (int cx = range[0]; cx <= range[2]; cx++) {
+            for (int cz = range[1]; cz <= range[3]; cz++) {
+                long key = LongObjectMap.key(cx, cz);
+                Area[] bucket = target.get(key);
+                if (bucket == null) {
+                    target.put(key, new Area[]{area});
+                } else {
+                    // Keep buckets in resolution order so lookups never sort
+                    int index = Arrays.binarySearch(bucket, area, Area.RESOLUTION_ORDER);
+                    int position = index < 0 ? -index - 1 : index;
+                    Area[] grown = new Area[bucket.length + 1];
+                    System.arraycopy(bucket, 0, grown, 0, position);
+                    grown[position] = area;
+                    System.arraycopy(bucket, position, grown, position + 1, bucket.length - position);
+                    target.put(key, grown);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the inclusive cell range covered by an area's bounds.
+     * @return array of [minCellX, minCellZ, maxCellX, maxCellZ]
+     */
+    @NotNull
+    private int[] cellRange(@NotNull Area area) {
+        return new int[]{cellOf(area.getMinX()), cellOf(area.getMinZ()), cellOf(area.getMaxX()), cellOf(area.getMaxZ())};
+    }
+
+    private int cellOf(double coordinate) {
+        return Math.floorDiv((int) Math.floor(coordinate), cellBlocks);
+    }
+
+    private static int indexOf(@NotNull Area[] bucket, @NotNull Area area) {
+        for (int i = 0; i < bucket.length; i++) {
+            if (bucket[i] == area) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,716 @@
+package com.worldprotect.area;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * R-tree over the horizontal bounds of areas.
+ *
+ * <p>Unlike the grid, query cost stays logarithmic no matter how uneven area
+ * sizes are, so a few huge arenas next to thousands of small plots don't
+ * degrade lookups. The full area set loaded at startup is packed with
+ * Sort-Tile-Recursive (STR) bulk loading; later changes use regular
+ * insert and delete with reinsertion of underfull nodes.</p>
+ *
+ * <p>Every item carries its area's rank in resolution order, renumbered on
+ * insert and remove, so lookups collect hits already in order instead of
+ * sorting them. Lookups with no hit or a single hit don't allocate, and
+ * each thread remembers its recent multi-hit results, so repeat lookups of
+ * the same overlap don't either.</p>
+ */
+public class RTreeSpatialIndex implements SpatialIndex {
+
+    private static final int MAX_ENTRIES = 16;
+    private static final int MIN_ENTRIES = 6;
+    // Multi-hit results remembered per thread, a power of two
+    private static final int RECENT_RESULTS = 64;
+    private static final Area[] NO_AREAS = new Area[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Hit buffer of each querying thread
+    private final ThreadLocal<Hits> hits = ThreadLocal.withInitial(Hits::new);
+    private Node root = new Node(true);
+    // Every indexed item in resolution order; ranked[i].rank == i
+    private Item[] ranked = new Item[MAX_ENTRIES];
+    private int size;
+
+    @Override
+    public void insert(@NotNull Area area) {
+        lock.writeLock().lock();
+        try {
+            Item item = new Item(area);
+            insertItem(item);
+            addRanked(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void insertAll(@NotNull Collection<Area> areas) {
+        lock.writeLock().lock();
+        try {
+            // Repacking is cheaper than inserting one by one when the tree at least doubles
+            if (areas.size() >= size) {
+                List<Item> items = new ArrayList<>(size + areas.size());
+                collectItems(root, items);
+                for (Area area : areas) {
+                    items.add(new Item(area));
+                }
+                root = bulkLoad(items);
+                rankAll(items);
+            } else {
+                for (Area area : areas) {
+                    Item item = new Item(area);
+                    insertItem(item);
+                    addRanked(item);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(@NotNull Area area) {
+        lock.writeLock().lock();
+        try {
+            Item target = new Item(area);
+            List<Item> orphans = new ArrayList<>();
+            Item removed = delete(root, target, orphans);
+            if (removed == null) {
+                return false;
+            }
+            removeRanked(removed);
+
+            // Shorten the tree while the root is a pass-through node
+            while (!root.leaf && root.children.size() == 1) {
+                root = root.children.get(0);
+            }
+            if (!root.leaf && root.children.isEmpty()) {
+                root = new Node(true);
+            }
+            for (Item orphan : orphans) {
+                insertItem(orphan);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @NotNull
+    @Override
+    public Area[] query(double x, double z) {
+        lock.readLock().lock();
+        try {
+            if (size == 0 || !root.contains(x, z)) {
+                return NO_AREAS;
+            }
+            Hits found = hits.get();
+            collect(root, x, z, found);
+            return found.drain();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @NotNull
+    @Override
+    public Area[] queryChunk(int chunkX, int chunkZ) {
+        double minX = chunkX << 4;
+        double minZ = chunkZ << 4;
+        lock.readLock().lock();
+        try {
+            if (size == 0) {
+                return NO_AREAS;
+            }
+            Hits found = hits.get();
+            collect(root, minX, minZ, minX + 16, minZ + 16, found);
+            return found.drain();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean intersectsChunk(int chunkX, int chunkZ) {
+        double minX = chunkX << 4;
+        double minZ = chunkZ << 4;
+        lock.readLock().lock();
+        try {
+            return size != 0 && intersects(root, minX, minZ, minX + 16, minZ + 16);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root = new Node(true);
+            ranked = new Item[MAX_ENTRIES];
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the height of the tree (1 for a single leaf).
+     * @return the tree height
+     */
+    public int getHeight() {
+        lock.readLock().lock();
+        try {
+            int height = 1;
+            Node node = root;
+            while (!node.leaf) {
+                node = node.children.get(0);
+                height++;
+            }
+            return height;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== TRAVERSAL ==========
+
+    /**
+     * Collect the items below a node whose bounds contain a column.
+     */
+    private static void collect(@NotNull Node node, double x, double z, @NotNull Hits found) {
+        if (node.leaf) {
+            for (int i = 0; i < node.items.size(); i++) {
+                Item item = node.items.get(i);
+                if (item.contains(x, z)) {
+                    found.add(item);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < node.children.size(); i++) {
+            Node child = node.children.get(i);
+            if (child.contains(x, z)) {
+                collect(child, x, z, found);
+            }
+        }
+    }
+
+    /**
+     * Collect the items below a node whose bounds overlap a chunk's half-open box.
+     */
+    private static void collect(@NotNull Node node, double minX, double minZ, double maxX, double maxZ,
+                                @NotNull Hits found) {
+        if (node.leaf) {
+            for (int i = 0; i < node.items.size(); i++) {
+                Item item = node.items.get(i);
+                if (item.overlaps(minX, minZ, maxX, maxZ)) {
+                    found.add(item);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < node.children.size(); i++) {
+            Node child = node.children.get(i);
+            if (child.overlaps(minX, minZ, maxX, maxZ)) {
+                collect(child, minX, minZ, maxX, maxZ, found);
+            }
+        }
+    }
+
+    private static boolean intersects(@NotNull Node node, double minX, double minZ, double maxX, double maxZ) {
+        if (!node.overlaps(minX, minZ, maxX, maxZ)) {
+            return false;
+        }
+        if (node.leaf) {
+            for (int i = 0; i < node.items.size(); i++) {
+                if (node.items.get(i).overlaps(minX, minZ, maxX, maxZ)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int i = 0; i < node.children.size(); i++) {
+            if (intersects(node.children.get(i), minX, minZ, maxX, maxZ)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ========== RANKS ==========
+
+    /**
+     * Add a new item to the resolution order and renumber the items after it.
+     */
+    private void addRanked(@NotNull Item item) {
+        if (size == ranked.length) {
+            ranked = Arrays.copyOf(ranked, size * 2);
+        }
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Area.RESOLUTION_ORDER.compare(ranked[middle].area, item.area) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        System.arraycopy(ranked, low, ranked, low + 1, size - low);
+        ranked[low] = item;
+        size++;
+        renumber(low);
+    }
+
+    private void removeRanked(@NotNull Item item) {
+        int position = item.rank;
+        System.arraycopy(ranked, position + 1, ranked, position, size - position - 1);
+        ranked[--size] = null;
+        renumber(position);
+    }
+
+    /**
+     * Rank a bulk-loaded set of items from scratch.
+     */
+    private void rankAll(@NotNull List<Item> items) {
+        Item[] sorted = items.toArray(new Item[Math.max(MAX_ENTRIES, items.size())]);
+        Arrays.sort(sorted, 0, items.size(), Comparator.comparing((Item item) -> item.area, Area.RESOLUTION_ORDER));
+        ranked = sorted;
+        size = items.size();
+        renumber(0);
+    }
+
+    private void renumber(int from) {
+        for (int i = from; i < size; i++) {
+            ranked[i].rank = i;
+        }
+    }
+
+    // ========== INSERT / DELETE ==========
+
+    private void insertItem(@NotNull Item item) {
+        Node sibling = insert(root, item);
+        if (sibling != null) {
+            Node newRoot = new Node(false);
+            newRoot.children.add(root);
+            newRoot.children.add(sibling);
+            newRoot.recalculateBounds();
+            root = newRoot;
+        }
+    }
+
+    /**
+     * Insert an item below a node.
+     * @return the new sibling if the node had to be split, otherwise null
+     */
+    @Nullable
+    private Node insert(@NotNull Node node, @NotNull Item item) {
+        node.extend(item.minX, item.minZ, item.maxX, item.maxZ);
+        if (node.leaf) {
+            node.items.add(item);
+            return node.items.size() > MAX_ENTRIES ? splitLeaf(node) : null;
+        }
+
+        Node sibling = insert(chooseSubtree(node, item), item);
+        if (sibling != null) {
+            node.children.add(sibling);
+            if (node.children.size() > MAX_ENTRIES) {
+                return splitInternal(node);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pick the child needing the least enlargement, preferring smaller children on ties.
+     */
+    @NotNull
+    private static Node chooseSubtree(@NotNull Node node, @NotNull Item item) {
+        Node best = null;
+        double bestEnlargement = Double.POSITIVE_INFINITY;
+        double bestArea = Double.POSITIVE_INFINITY;
+        for (Node child : node.children) {
+            double area = child.area();
+            double enlargement = child.enlargedArea(item) - area;
+            if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+                best = child;
+                bestEnlargement = enlargement;
+                bestArea = area;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Delete an item below a node, collecting items of underfull nodes for reinsertion.
+     * @return the removed item, or null if the area wasn't found
+     */
+    @Nullable
+    private Item delete(@NotNull Node node, @NotNull Item target, @NotNull List<Item> orphans) {
+        if (node.leaf) {
+            for (int i = 0; i < node.items.size(); i++) {
+                if (node.items.get(i).area == target.area) {
+                    Item removed = node.items.remove(i);
+                    node.recalculateBounds();
+                    return removed;
+                }
+            }
+            return null;
+        }
+
+        for (int i = 0; i < node.children.size(); i++) {
+            Node child = node.children.get(i);
+            if (!child.intersects(target)) {
+                continue;
+            }
+            Item removed = delete(child, target, orphans);
+            if (removed == null) {
+                continue;
+            }
+            if (child.entryCount() < MIN_ENTRIES) {
+                node.children.remove(i);
+                collectItems(child, orphans);
+            }
+            node.recalculateBounds();
+            return removed;
+        }
+        return null;
+    }
+
+    // ========== SPLITTING ==========
+
+    @NotNull
+    private static Node splitLeaf(@NotNull Node node) {
+        List<Item> items = new ArrayList<>(node.items);
+        boolean byX = spreadX(items) >= spreadZ(items);
+        items.sort(byX ? Comparator.comparingDouble(Item::centerX) : Comparator.comparingDouble(Item::centerZ));
+
+        int half = items.size() / 2;
+        node.items.clear();
+        node.items.addAll(items.subList(0, half));
+        node.recalculateBounds();
+
+        Node sibling = new Node(true);
+        sibling.items.addAll(items.subList(half, items.size()));
+        sibling.recalculateBounds();
+        return sibling;
+    }
+
+    @NotNull
+    private static Node splitInternal(@NotNull Node node) {
+        List<Node> children = new ArrayList<>(node.children);
+        double spreadX = 0;
+        double spreadZ = 0;
+        if (!children.isEmpty()) {
+            double minCX = Double.POSITIVE_INFINITY, maxCX = Double.NEGATIVE_INFINITY;
+            double minCZ = Double.POSITIVE_INFINITY, maxCZ = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                minCX = Math.min(minCX, child.centerX());
+                maxCX = Math.max(maxCX, child.centerX());
+                minCZ = Math.min(minCZ, child.centerZ());
+                maxCZ = Math.max(maxCZ, child.centerZ());
+            }
+            spreadX = maxCX - minCX;
+            spreadZ = maxCZ - minCZ;
+        }
+        children.sort(spreadX >= spreadZ
+            ? Comparator.comparingDouble(Node::centerX)
+            : Comparator.comparingDouble(Node::centerZ));
+
+        int half = children.size() / 2;
+        node.children.clear();
+        node.children.addAll(children.subList(0, half));
+        node.recalculateBounds();
+
+        Node sibling = new Node(false);
+        sibling.children.addAll(children.subList(half, children.size()));
+        sibling.recalculateBounds();
+        return sibling;
+    }
+
+    private static double spreadX(@NotNull List<Item> items) {
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        for (Item item : items) {
+            min = Math.min(min, item.centerX());
+            max = Math.max(max, item.centerX());
+        }
+        return max - min;
+    }
+
+    private static double spreadZ(@NotNull List<Item> items) {
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        for (Item item : items) {
+            min = Math.min(min, item.centerZ());
+            max = Math.max(max, item.centerZ());
+        }
+        return max - min;
+    }
+
+    // ========== STR BULK LOADING ==========
+
+    /**
+     * Pack items into a tree with Sort-Tile-Recursive: sort by x, cut into
+     * vertical slices, sort each slice by z and fill nodes in order. The same
+     * packing is repeated on each level of nodes until a single root remains.
+     */
+    @NotNull
+    private static Node bulkLoad(@NotNull List<Item> items) {
+        if (items.isEmpty()) {
+            return new Node(true);
+        }
+
+        List<Node> level = new ArrayList<>();
+        for (List<Item> group : strPack(items, Item::centerX, Item::centerZ)) {
+            Node leaf = new Node(true);
+            leaf.items.addAll(group);
+            leaf.recalculateBounds();
+            level.add(leaf);
+        }
+
+        while (level.size() > 1) {
+            List<Node> parents = new ArrayList<>();
+            for (List<Node> group : strPack(level, Node::centerX, Node::centerZ)) {
+                Node parent = new Node(false);
+                parent.children.addAll(group);
+                parent.recalculateBounds();
+                parents.add(parent);
+            }
+            level = parents;
+        }
+        return level.get(0);
+    }
+
+    @NotNull
+    private static <T> List<List<T>> strPack(@NotNull List<T> entries,
+                                             @NotNull ToDoubleFunction<T> centerX,
+                                             @NotNull ToDoubleFunction<T> centerZ) {
+        List<T> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingDouble(centerX));
+
+        int nodeCount = (sorted.size() + MAX_ENTRIES - 1) / MAX_ENTRIES;
+        int sliceCount = (int) Math.ceil(Math.sqrt(nodeCount));
+        int sliceSize = sliceCount * MAX_ENTRIES;
+
+        List<List<T>> groups = new ArrayList<>(nodeCount);
+        for (int sliceStart = 0; sliceStart < sorted.size(); sliceStart += sliceSize) {
+            List<T> slice = new ArrayList<>(sorted.subList(sliceStart, Math.min(sliceStart + sliceSize, sorted.size())));
+            slice.sort(Comparator.comparingDouble(centerZ));
+            for (int start = 0; start < slice.size(); start += MAX_ENTRIES) {
+                groups.add(new ArrayList<>(slice.subList(start, Math.min(start + MAX_ENTRIES, slice.size()))));
+            }
+        }
+        return groups;
+    }
+
+    private static void collectItems(@NotNull Node node, @NotNull List<Item> out) {
+        if (node.leaf) {
+            out.addAll(node.items);
+        } else {
+            for (Node child : node.children) {
+                collectItems(child, out);
+            }
+        }
+    }
+
+    // ========== NODES ==========
+
+    /**
+     * Indexed area with its horizontal bounds captured at insert time.
+     */
+    private static final class Item {
+        final Area area;
+        // Result of lookups that hit only this area
+        final Area[] single;
+        final double minX, minZ, maxX, maxZ;
+        // Position in resolution order among all indexed areas
+        int rank;
+
+        Item(@NotNull Area area) {
+            this.area = area;
+            this.single = new Area[]{area};
+            this.minX = area.getMinX();
+            this.minZ = area.getMinZ();
+            this.maxX = area.getMaxX();
+            this.maxZ = area.getMaxZ();
+        }
+
+        boolean contains(double x, double z) {
+            return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+        }
+
+        boolean overlaps(double boxMinX, double boxMinZ, double boxMaxX, double boxMaxZ) {
+            return maxX >= boxMinX && minX < boxMaxX && maxZ >= boxMinZ && minZ < boxMaxZ;
+        }
+
+        double centerX() {
+            return (minX + maxX) / 2;
+        }
+
+        double centerZ() {
+            return (minZ + maxZ) / 2;
+        }
+    }
+
+    /**
+     * Reusable buffer of one thread's lookup hits, kept in rank order.
+     */
+    private static final class Hits {
+        Item[] items = new Item[8];
+        int count;
+        // Direct-mapped by the hits' ranks; a slot is only reused if it holds the same areas
+        final Area[][] recent = new Area[RECENT_RESULTS][];
+
+        void add(@NotNull Item item) {
+            if (count == items.length) {
+                items = Arrays.copyOf(items, count * 2);
+            }
+            // Insert by rank; hits are few, so shifting beats sorting afterwards
+            int position = count;
+            while (position > 0 && items[position - 1].rank > item.rank) {
+                items[position] = items[position - 1];
+                position--;
+            }
+            items[position] = item;
+            count++;
+        }
+
+        /**
+         * Get the hits as areas in resolution order and reset the buffer.
+         */
+        @NotNull
+        Area[] drain() {
+            Area[] result;
+            if (count == 0) {
+                return NO_AREAS;
+            } else if (count == 1) {
+                result = items[0].single;
+            } else {
+                result = recent();
+            }
+            Arrays.fill(items, 0, count, null);
+            count = 0;
+            return result;
+        }
+
+        @NotNull
+        private Area[] recent() {
+            int hash = 1;
+            for (int i = 0; i < count; i++) {
+                hash = 31 * hash + items[i].rank;
+            }
+            int slot = (hash ^ (hash >>> 16)) & (RECENT_RESULTS - 1);
+            Area[] cached = recent[slot];
+            if (cached != null && matches(cached)) {
+                return cached;
+            }
+            Area[] result = new Area[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = items[i].area;
+            }
+            recent[slot] = result;
+            return result;
+        }
+
+        private boolean matches(@NotNull Area[] cached) {
+            if (cached.length != count) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                if (cached[i] != items[i].area) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Node {
+        final boolean leaf;
+        final List<Item> items;
+        final List<Node> children;
+        double minX = Double.POSITIVE_INFINITY;
+        double minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxZ = Double.NEGATIVE_INFINITY;
+
+        Node(boolean leaf) {
+            this.leaf = leaf;
+            this.items = leaf ? new ArrayList<>(MAX_ENTRIES + 1) : List.of();
+            this.children = leaf ? List.of() : new ArrayList<>(MAX_ENTRIES + 1);
+        }
+
+        int entryCount() {
+            return leaf ? items.size() : children.size();
+        }
+
+        boolean contains(double x, double z) {
+            return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+        }
+
+        boolean overlaps(double boxMinX, double boxMinZ, double boxMaxX, double boxMaxZ) {
+            return maxX >= boxMinX && minX < boxMaxX && maxZ >= boxMinZ && minZ < boxMaxZ;
+        }
+
+        boolean intersects(@NotNull Item item) {
+            return item.minX <= maxX && item.maxX >= minX && item.minZ <= maxZ && item.maxZ >= minZ;
+        }
+
+        void extend(double otherMinX, double otherMinZ, double otherMaxX, double otherMaxZ) {
+            minX = Math.min(minX, otherMinX);
+            minZ = Math.min(minZ, otherMinZ);
+            maxX = Math.max(maxX, otherMaxX);
+            maxZ = Math.max(maxZ, otherMaxZ);
+        }
+
+        void recalculateBounds() {
+            minX = Double.POSITIVE_INFINITY;
+            minZ = Double.POSITIVE_INFINITY;
+            maxX = Double.NEGATIVE_INFINITY;
+            maxZ = Double.NEGATIVE_INFINITY;
+            if (leaf) {
+                for (Item item : items) {
+                    extend(item.minX, item.minZ, item.maxX, item.maxZ);
+                }
+            } else {
+                for (Node child : children) {
+                    extend(child.minX, child.minZ, child.maxX, child.maxZ);
+                }
+            }
+        }
+
+        double area() {
+            return (maxX - minX) * (maxZ - minZ);
+        }
+
+        double enlargedArea(@NotNull Item item) {
+            return (Math.max(maxX, item.maxX) - Math.min(minX, item.minX))
+                * (Math.max(maxZ, item.maxZ) - Math.min(minZ, item.minZ));
+        }
+
+        double centerX() {
+            return (minX + maxX) / 2;
+        }
+
+        double centerZ() {
+            return (minZ + maxZ) / 2;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.worldprotect.area;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Spatial lookup structure for the areas of a single world.
+ *
+ * <p>An index works on the horizontal (X/Z) bounds of each area and returns
+ * candidates whose bounds may contain a queried column. Candidates can be
+ * false positives; {@link AreaManager} still runs {@link Area#contains} on them.</p>
+ */
+public interface SpatialIndex {
+
+    /**
+     * Available index implementations, matching {@code performance.spatial-index-type}.
+     */
+    enum Type {
+        GRID,
+        RTREE;
+
+        /**
+         * Parse an index type from its configuration name.
+         * @param name the configured name (case-insensitive)
+         * @return the index type, or GRID if unknown
+         */
+        @NotNull
+        public static Type fromConfig(@NotNull String name) {
+            for (Type type : values()) {
+                if (type.name().equalsIgnoreCase(name)) {
+                    return type;
+                }
+            }
+            return GRID;
+        }
+    }
+
+    /**
+     * Add an area to the index.
+     * @param area the area
+     */
+    void insert(@NotNull Area area);
+
+    /**
+     * Add many areas at once, e.g. when all areas are loaded at startup.
+     * @param areas the areas
+     */
+    default void insertAll(@NotNull Collection<Area> areas) {
+        for (Area area : areas) {
+            insert(area);
+        }
+    }
+
+    /**
+     * Remove an area from the index.
+     * @param area the area
+     * @return true if the area was indexed
+     */
+    boolean remove(@NotNull Area area);
+
+    /**
+     * Get the candidate areas for a column, in {@link Area#RESOLUTION_ORDER}.
+     * The returned array may be shared with the index and must not be modified.
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @return candidate areas, never null
+     */
+    @NotNull
+    Area[] query(double x, double z);
+
+    /**
+     * Get the candidate areas for every column of a chunk, in {@link Area#RESOLUTION_ORDER}.
+     * Lets batched lookups probe the index once per chunk instead of once per block.
+     * The returned array may be shared with the index and must not be modified.
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     * @return candidate areas, never null
+     */
+    @NotNull
+    Area[] queryChunk(int chunkX, int chunkZ);
+
+    /**
+     * Check whether the horizontal bounds of any area overlap a chunk. Cheaper
+     * than a query per block when most chunks hold no area at all.
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     * @return true if some area may contain blocks of the chunk
+     */
+    boolean intersectsChunk(int chunkX, int chunkZ);
+
+    /**
+     * Remove all areas.
+     */
+    void clear();
+
+    /**
+     * Get the number of indexed areas.
+     * @return the area count
+     */
+    int size();
+}
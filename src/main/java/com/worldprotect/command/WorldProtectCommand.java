@@ -2,17 +2,22 @@ package com.worldprotect.command;
 
 import com.worldprotect.WorldProtectPlugin;
 import com.worldprotect.area.Area;
+import com.worldprotect.area.AreaManager;
+import com.worldprotect.area.AreaSet;
+import com.worldprotect.flags.EffectiveFlags;
 import com.worldprotect.flags.Flag;
 import com.worldprotect.flags.GroupFlag;
+import com.worldprotect.listener.BypassCache;
+import com.worldprotect.listener.SectionVerdictCache;
 import org.bukkit.Location;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Main /wp command for World Protect.
@@ -60,6 +65,10 @@ public class WorldProtectCommand extends BaseCommand {
                 return handleSelectionCommand(sender, args);
             case "circle":
                 return createCircleArea(sender, args);
+            case "bypass":
+                return toggleBypass(sender);
+            case "stats":
+                return showStats(sender, args);
             default:
                 sendError(sender, "Unknown command. Use /wp help for available commands.");
                 return true;
@@ -71,7 +80,7 @@ public class WorldProtectCommand extends BaseCommand {
         List<String> completions = new ArrayList<>();
         
         if (args.length == 1) {
-            completions.addAll(Arrays.asList("help", "wand", "create", "delete", "list", "info", "flags", "flag", "reload", "version", "cancel", "here", "selection", "circle"));
+            completions.addAll(Arrays.asList("help", "wand", "create", "delete", "list", "info", "flags", "flag", "reload", "version", "cancel", "here", "selection", "circle", "bypass", "stats"));
         } else if (args.length == 2) {
             String subCommand = args[0].toLowerCase();
             switch (subCommand) {
@@ -89,6 +98,9 @@ public class WorldProtectCommand extends BaseCommand {
                 case "selection":
                     completions.addAll(Arrays.asList("new", "clear", "cancel", "info", "mode", "finish"));
                     break;
+                case "stats":
+                    completions.add("reset");
+                    break;
             }
         } else if (args.length == 3) {
             String subCommand = args[0].toLowerCase();
@@ -140,6 +152,8 @@ public class WorldProtectCommand extends BaseCommand {
         sendMessage(sender, "§6/wp here §7- Show areas at your location");
         sendMessage(sender, "§6/wp here flags §7- Show effective flags at your location");
         sendMessage(sender, "§6/wp here visualize §7- Visualize area boundaries");
+        sendMessage(sender, "§6/wp bypass §7- Toggle protection bypass for this session");
+        sendMessage(sender, "§6/wp stats [reset] §7- Show protection cache statistics");
         return true;
     }
     
@@ -159,6 +173,18 @@ public class WorldProtectCommand extends BaseCommand {
         
         String name = args[1];
         
+        // Check the name against the configured rules; reserved names address fallback regions
+        if (!name.matches(plugin.getConfig().getString("regions.name-regex", "^[a-zA-Z0-9_-]{1,64}$"))) {
+            sendError(sender, "Invalid area name.");
+            return true;
+        }
+        for (String reserved : plugin.getConfig().getStringList("regions.reserved-names")) {
+            if (name.equalsIgnoreCase(reserved)) {
+                sendError(sender, "The name '" + name + "' is reserved.");
+                return true;
+            }
+        }
+        
         // Check if area already exists
         if (plugin.getAreaManager().hasArea(name)) {
             sendError(sender, "An area with that name already exists.");
@@ -341,7 +367,7 @@ public class WorldProtectCommand extends BaseCommand {
         }
         
         String name = args[1];
-        Area area = plugin.getAreaManager().getArea(name);
+        Area area = findArea(sender, name, false);
         
         if (area == null) {
             sendError(sender, "Area '" + name + "' not found.");
@@ -349,6 +375,9 @@ public class WorldProtectCommand extends BaseCommand {
         }
         
         sendMessage(sender, "§3=== Area Info: " + area.getName() + " ===");
+        if (area.isFallback()) {
+            sendMessage(sender, "§6Scope: §7" + area.getScope());
+        }
         sendMessage(sender, "§6World: §7" + area.getWorldName());
         sendMessage(sender, "§6Priority: §7" + area.getPriority());
         sendMessage(sender, "§6Shape: §7" + area.getShape());
@@ -417,6 +446,8 @@ public class WorldProtectCommand extends BaseCommand {
         }
         
         plugin.reloadConfig();
+        plugin.loadFlagDefaults();
+        plugin.refreshBypass();
         sendSuccess(sender, "Plugin configuration reloaded!");
         return true;
     }
@@ -435,7 +466,7 @@ public class WorldProtectCommand extends BaseCommand {
         String valueStr = args[3].toLowerCase();
         
         // Check if area exists
-        Area area = plugin.getAreaManager().getArea(areaName);
+        Area area = findArea(sender, areaName, true);
         if (area == null) {
             sendError(sender, "Area '" + areaName + "' not found.");
             // Suggest similar area names
@@ -508,14 +539,96 @@ public class WorldProtectCommand extends BaseCommand {
         
         // Set flag
         area.setFlag(flag, booleanValue);
+        area.setNotify(flag, displayValue.equals("notify"));
         
         // Save area
         plugin.getStorageManager().saveArea(area).join();
         
-        sendSuccess(sender, "Flag '" + flag.getName() + "' set to " + displayValue + " for area '" + areaName + "'.");
+        sendSuccess(sender, "Flag '" + flag.getName() + "' set to " + displayValue + " for area '" + area.getName() + "'.");
+        return true;
+    }
+    
+    /**
+     * Find an area by name, or a fallback region: {@code global}, {@code world}
+     * for the sender's world, or {@code world.<name>}.
+     * @param create whether admins create a missing fallback region
+     */
+    @Nullable
+    private Area findArea(@NotNull CommandSender sender, @NotNull String name, boolean create) {
+        var areaManager = plugin.getAreaManager();
+        Area area = areaManager.getArea(name);
+        if (area != null) {
+            return area;
+        }
+        
+        create &= sender.hasPermission("worldprotect.admin");
+        if (name.equalsIgnoreCase(Area.GLOBAL_REGION_NAME)) {
+            return create ? areaManager.getOrCreateGlobalRegion() : areaManager.getGlobalRegion();
+        }
+        String worldName = null;
+        String prefix = Area.worldRegionName("");
+        if (name.equalsIgnoreCase("world") && sender instanceof Player player) {
+            worldName = player.getWorld().getName();
+        } else if (name.startsWith(prefix)) {
+            worldName = name.substring(prefix.length());
+        }
+        if (worldName == null || plugin.getServer().getWorld(worldName) == null) {
+            return null;
+        }
+        return create ? areaManager.getOrCreateWorldRegion(worldName) : areaManager.getWorldRegion(worldName);
+    }
+    
+    private boolean toggleBypass(@NotNull CommandSender sender) {
+        if (!(sender instanceof Player player)) {
+            sendError(sender, "This command can only be used by players.");
+            return true;
+        }
+        
+        if (!player.hasPermission(BypassCache.PERMISSION)) {
+            sendError(sender, "You don't have permission to bypass protection.");
+            return true;
+        }
+        
+        if (plugin.getBypassCache().toggle(player)) {
+            sendSuccess(sender, "Protection bypass enabled for this session.");
+        } else {
+            sendSuccess(sender, "Protection bypass disabled for this session.");
+        }
         return true;
     }
     
+    private boolean showStats(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!sender.hasPermission("worldprotect.admin")) {
+            sendError(sender, "You don't have permission to view statistics.");
+            return true;
+        }
+        
+        SectionVerdictCache sections = plugin.getSectionVerdicts();
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            sections.resetStats();
+            sendSuccess(sender, "Statistics reset.");
+            return true;
+        }
+        
+        long hits = sections.getHits();
+        long lookups = hits + sections.getMisses() + sections.getMixed();
+        sendMessage(sender, "§3=== World Protect Statistics ===");
+        AreaManager areaManager = plugin.getAreaManager();
+        sendMessage(sender, "§6Areas: §7" + areaManager.getAreaCount());
+        sendMessage(sender, "§6Area combinations: §7" + areaManager.getAreaSetCount()
+            + " §8(" + areaManager.getAreaSetEvictions() + " evicted)");
+        sendMessage(sender, "§6Cached sections: §7" + sections.size());
+        sendMessage(sender, "§6Section hits: §7" + hits + " §8(" + percent(hits, lookups) + ")");
+        sendMessage(sender, "§6Section misses: §7" + sections.getMisses());
+        sendMessage(sender, "§6Mixed sections: §7" + sections.getMixed());
+        return true;
+    }
+    
+    @NotNull
+    private static String percent(long part, long total) {
+        return total == 0 ? "-" : String.format("%.1f%%", 100.0 * part / total);
+    }
+    
     private boolean giveWand(@NotNull CommandSender sender) {
         if (!(sender instanceof Player player)) {
             sendError(sender, "This command can only be used by players.");
@@ -582,13 +695,14 @@ public class WorldProtectCommand extends BaseCommand {
         }
         
         Location location = player.getLocation();
-        List<Area> areas = plugin.getAreaManager().getAreasAtLocation(location);
+        AreaSet areaSet = plugin.getAreaManager().getAreaSetAt(location);
+        List<Area> areas = areaSet.getAreas();
         
         if (args.length > 1) {
             String subArg = args[1].toLowerCase();
             if (subArg.equals("flags")) {
                 // Show effective flag values
-                return showHereFlags(sender, player, location, areas);
+                return showHereFlags(sender, player, location, areaSet);
             } else if (subArg.equals("visualize")) {
                 // Visualize areas
                 return visualizeAreas(sender, player, location, areas);
@@ -596,16 +710,21 @@ public class WorldProtectCommand extends BaseCommand {
         }
         
         // Show areas at location
-        return showHereAreas(sender, player, location, areas);
+        return showHereAreas(sender, player, location, areaSet);
     }
     
     private boolean showHereAreas(@NotNull CommandSender sender, @NotNull Player player, 
-                                  @NotNull Location location, @NotNull List<Area> areas) {
+                                  @NotNull Location location, @NotNull AreaSet areaSet) {
         sendMessage(sender, "§3=== Areas at your location ===");
         sendMessage(sender, "§6Location: §7" + formatLocation(location));
         
+        List<Area> areas = areaSet.getAreas();
         if (areas.isEmpty()) {
             sendInfo(sender, "No areas at this location.");
+            // Fallback regions apply everywhere outside areas
+            for (Area region : areaSet.getFallbackRegions()) {
+                sendMessage(sender, "§7  §6" + region.getName() + " §7- Fallback region");
+            }
             return true;
         }
         
@@ -633,38 +752,44 @@ public class WorldProtectCommand extends BaseCommand {
     }
     
     private boolean showHereFlags(@NotNull CommandSender sender, @NotNull Player player,
-                                  @NotNull Location location, @NotNull List<Area> areas) {
+                                  @NotNull Location location, @NotNull AreaSet areaSet) {
         sendMessage(sender, "§3=== Effective flags at your location ===");
         sendMessage(sender, "§6Location: §7" + formatLocation(location));
         
+        // Get effective flag values, which outside areas come from the fallback regions and defaults
+        EffectiveFlags flagValues = areaSet.getEffectiveFlags(player);
+        
+        List<Area> areas = areaSet.getAreas();
         if (areas.isEmpty()) {
-            sendInfo(sender, "No areas at this location. Using default flag values.");
-            // Show default flags
-            for (Flag flag : Flag.values()) {
-                String valueStr = flag.getDefaultValue() ? "§aallow" : "§cdeny";
-                sendMessage(sender, "  §7- " + flag.getName() + ": " + valueStr + " §8(default)");
+            List<String> regions = new ArrayList<>();
+            for (Area region : areaSet.getFallbackRegions()) {
+                regions.add(region.getName());
+            }
+            if (regions.isEmpty()) {
+                sendInfo(sender, "No areas at this location. Using the world's default flag values.");
+            } else {
+                sendInfo(sender, "No areas at this location. Using fallback regions (" + 
+                    String.join(", ", regions) + "), then the world's default flag values.");
+            }
+        } else {
+            // Show which area is effective
+            Area effectiveArea = areas.get(0);
+            sendMessage(sender, "§6Effective area: §7" + effectiveArea.getName() + 
+                " (Priority: " + effectiveArea.getPriority() + ")");
+            
+            if (areas.size() > 1) {
+                sendInfo(sender, areas.size() + " areas overlap. Highest priority area determines flags.");
             }
-            return true;
-        }
-        
-        // Get effective flag values
-        Map<String, Boolean> flagValues = plugin.getAreaManager().getAllFlagValuesAtLocation(location, player);
-        
-        // Show which area is effective
-        Area effectiveArea = areas.get(0);
-        sendMessage(sender, "§6Effective area: §7" + effectiveArea.getName() + 
-            " (Priority: " + effectiveArea.getPriority() + ")");
-        
-        if (areas.size() > 1) {
-            sendInfo(sender, areas.size() + " areas overlap. Highest priority area determines flags.");
         }
         
         // Show flag values
-        for (Map.Entry<String, Boolean> entry : flagValues.entrySet()) {
-            String flagName = entry.getKey();
-            boolean value = entry.getValue();
-            String valueStr = value ? "§aallow" : "§cdeny";
-            sendMessage(sender, "  §7- " + flagName + ": " + valueStr);
+        for (Flag flag : Flag.values()) {
+            String valueStr = flagValues.isAllowed(flag) ? "§aallow" : "§cdeny";
+            sendMessage(sender, "  §7- " + flag.getName() + ": " + valueStr);
+        }
+        for (GroupFlag groupFlag : GroupFlag.values()) {
+            String valueStr = flagValues.isAllowed(groupFlag) ? "§aallow" : "§cdeny";
+            sendMessage(sender, "  §7- " + groupFlag.getName() + ": " + valueStr);
         }
         
         return true;
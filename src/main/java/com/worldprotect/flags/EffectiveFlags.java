@@ -0,0 +1,121 @@
+package com.worldprotect.flags;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The effective value of every flag and group flag for one subject group at
+ * one location, as bit masks indexed by ordinal. Built in a single pass over
+ * the areas by {@link FlagResolver#resolveAll}. Instances are immutable.
+ */
+public final class EffectiveFlags {
+
+    /** Atomic flag defaults, indexed by ordinal. */
+    static final long DEFAULT_FLAGS;
+    /** Group flags are allowed unless set. */
+    static final int DEFAULT_GROUP_FLAGS = (int) ((1L << GroupFlag.values().length) - 1);
+
+    static {
+        // One long for atomic flags, one int for group flags
+        if (Flag.values().length > Long.SIZE || GroupFlag.values().length > Integer.SIZE) {
+            throw new IllegalStateException("Too many flags for effective flag masks");
+        }
+        long defaults = 0;
+        for (Flag flag : Flag.values()) {
+            if (flag.getDefaultValue()) {
+                defaults |= 1L << flag.ordinal();
+            }
+        }
+        DEFAULT_FLAGS = defaults;
+    }
+
+    private final FlagResolver.SubjectGroup subjectGroup;
+    private final long flags;
+    private final int groupFlags;
+
+    EffectiveFlags(@NotNull FlagResolver.SubjectGroup subjectGroup, long flags, int groupFlags) {
+        this.subjectGroup = subjectGroup;
+        this.flags = flags;
+        this.groupFlags = groupFlags;
+    }
+
+    /**
+     * Get the subject group these values were resolved for.
+     * @return the subject group
+     */
+    @NotNull
+    public FlagResolver.SubjectGroup getSubjectGroup() {
+        return subjectGroup;
+    }
+
+    /**
+     * Get the effective value of an atomic flag.
+     * @param flag the flag
+     * @return the effective flag value
+     */
+    public boolean isAllowed(@NotNull Flag flag) {
+        return (flags & (1L << flag.ordinal())) != 0;
+    }
+
+    /**
+     * Get the effective value of a group flag.
+     * @param groupFlag the group flag
+     * @return the effective group flag value
+     */
+    public boolean isAllowed(@NotNull GroupFlag groupFlag) {
+        return (groupFlags & (1 << groupFlag.ordinal())) != 0;
+    }
+
+    /**
+     * Get the allowed atomic flags.
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getFlagMask() {
+        return flags;
+    }
+
+    /**
+     * Get the allowed group flags.
+     * @return bit mask indexed by {@link GroupFlag#ordinal()}
+     */
+    public int getGroupFlagMask() {
+        return groupFlags;
+    }
+
+    /**
+     * Get the atomic flag values as a map.
+     * @return new map of every flag to its effective value
+     */
+    @NotNull
+    public EnumMap<Flag, Boolean> toFlagMap() {
+        EnumMap<Flag, Boolean> result = new EnumMap<>(Flag.class);
+        for (Flag flag : Flag.values()) {
+            result.put(flag, isAllowed(flag));
+        }
+        return result;
+    }
+
+    /**
+     * Get every value by name: atomic flags first, then group flags, each in declaration order.
+     * @return new map of flag name to effective value
+     */
+    @NotNull
+    public Map<String, Boolean> toNameMap() {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        for (Flag flag : Flag.values()) {
+            result.put(flag.getName(), isAllowed(flag));
+        }
+        for (GroupFlag groupFlag : GroupFlag.values()) {
+            result.put(groupFlag.getName(), isAllowed(groupFlag));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "EffectiveFlags[" + subjectGroup + ", " + toNameMap() + "]";
+    }
+}
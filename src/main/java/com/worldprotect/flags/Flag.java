@@ -64,6 +64,15 @@ public enum Flag implements ConfigurationSerializable {
     // Command flags
     COMMANDS("commands", "Controls command usage in area", true);
     
+    // Names are lowercase, so a lowercased key matches case-insensitively
+    private static final Map<String, Flag> BY_NAME = new HashMap<>();
+    
+    static {
+        for (Flag flag : values()) {
+            BY_NAME.put(flag.getName(), flag);
+        }
+    }
+    
     private final String name;
     private final String description;
     private final boolean defaultValue;
@@ -130,12 +139,7 @@ public enum Flag implements ConfigurationSerializable {
      * @return the flag, or null if not found
      */
     public static Flag byName(String name) {
-        for (Flag flag : values()) {
-            if (flag.getName().equalsIgnoreCase(name)) {
-                return flag;
-            }
-        }
-        return null;
+        return name != null ? BY_NAME.get(name.toLowerCase(Locale.ROOT)) : null;
     }
     
     /**
@@ -0,0 +1,205 @@
+package com.worldprotect.flags;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Compiled fallback values for atomic flags that no area sets explicitly.
+ *
+ * <p>Each world has one bit mask per column: one for each
+ * {@link FlagResolver.SubjectGroup} inside areas, and one for unclaimed
+ * locations. Later sources override earlier ones:</p>
+ * <ol>
+ *   <li>{@link Flag#getDefaultValue()}</li>
+ *   <li>{@code flags.defaults}</li>
+ *   <li>{@code flags.subject-defaults.<owner|member|nonmember>}, inside areas only</li>
+ *   <li>{@code worlds.overrides.<world>.flags}</li>
+ * </ol>
+ * <p>Instances are immutable; a config reload compiles a new one.</p>
+ */
+public final class FlagDefaults {
+
+    private static final int UNCLAIMED = FlagResolver.SubjectGroup.values().length;
+    private static final int COLUMNS = UNCLAIMED + 1;
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private static final long ALL_FLAGS = Flag.values().length == Long.SIZE ? -1L : (1L << Flag.values().length) - 1;
+
+    /** Only the built-in defaults of each flag. */
+    public static final FlagDefaults BUILTIN = new FlagDefaults(filled(EffectiveFlags.DEFAULT_FLAGS), new HashMap<>());
+
+    private final long[] base;
+    private final Map<String, long[]> worlds;
+    private final long version;
+
+    private FlagDefaults(@NotNull long[] base, @NotNull Map<String, long[]> worlds) {
+        this.base = base;
+        this.worlds = worlds;
+        this.version = VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Compile the defaults from the plugin configuration. Unknown flags and
+     * values are skipped with a warning.
+     * @param config the plugin configuration
+     * @param logger logger for warnings
+     * @return the compiled defaults
+     */
+    @NotNull
+    public static FlagDefaults compile(@NotNull ConfigurationSection config, @NotNull Logger logger) {
+        long[] base = filled(EffectiveFlags.DEFAULT_FLAGS);
+        long[] masks = new long[2];
+
+        readFlags(config.getConfigurationSection("flags.defaults"), "flags.defaults", logger, masks);
+        for (int column = 0; column < COLUMNS; column++) {
+            base[column] = apply(base[column], masks);
+        }
+
+        ConfigurationSection subjects = config.getConfigurationSection("flags.subject-defaults");
+        if (subjects != null) {
+            for (FlagResolver.SubjectGroup subjectGroup : FlagResolver.SubjectGroup.values()) {
+                String key = subjectGroup.name().toLowerCase(Locale.ROOT);
+                readFlags(subjects.getConfigurationSection(key), "flags.subject-defaults." + key, logger, masks);
+                base[subjectGroup.ordinal()] = apply(base[subjectGroup.ordinal()], masks);
+            }
+        }
+
+        Map<String, long[]> worlds = new HashMap<>();
+        ConfigurationSection overrides = config.getConfigurationSection("worlds.overrides");
+        if (overrides != null) {
+            for (String worldName : overrides.getKeys(false)) {
+                String path = "worlds.overrides." + worldName + ".flags";
+                readFlags(config.getConfigurationSection(path), path, logger, masks);
+                if (masks[0] == 0) {
+                    continue;
+                }
+                long[] world = base.clone();
+                for (int column = 0; column < COLUMNS; column++) {
+                    world[column] = apply(world[column], masks);
+                }
+                worlds.put(worldName, world);
+            }
+        }
+        return new FlagDefaults(base, worlds);
+    }
+
+    /**
+     * Get the default values of every atomic flag.
+     * @param worldName the world, or null for no world-specific overrides
+     * @param subjectGroup the subject group inside an area, or null for unclaimed locations
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getFlagMask(@Nullable String worldName, @Nullable FlagResolver.SubjectGroup subjectGroup) {
+        long[] columns = worldName != null ? worlds.getOrDefault(worldName, base) : base;
+        return columns[subjectGroup != null ? subjectGroup.ordinal() : UNCLAIMED];
+    }
+
+    /**
+     * Get the default value of an atomic flag.
+     * @param flag the flag
+     * @param worldName the world, or null for no world-specific overrides
+     * @param subjectGroup the subject group inside an area, or null for unclaimed locations
+     * @return the default value
+     */
+    public boolean getDefaultValue(@NotNull Flag flag, @Nullable String worldName,
+                                   @Nullable FlagResolver.SubjectGroup subjectGroup) {
+        return (getFlagMask(worldName, subjectGroup) & (1L << flag.ordinal())) != 0;
+    }
+
+    /**
+     * Get the atomic flags denied by default in any world, for any subject
+     * group or for unclaimed locations.
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getDeniedMask() {
+        long denied = denied(base);
+        for (long[] columns : worlds.values()) {
+            denied |= denied(columns);
+        }
+        return denied;
+    }
+    
+    /**
+     * Get the version of these defaults. Every compiled instance has a higher
+     * version than the ones before it.
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @NotNull
+    private static long[] filled(long mask) {
+        long[] columns = new long[COLUMNS];
+        Arrays.fill(columns, mask);
+        return columns;
+    }
+
+    private static long denied(@NotNull long[] columns) {
+        long denied = 0;
+        for (long column : columns) {
+            denied |= ~column;
+        }
+        return denied & ALL_FLAGS;
+    }
+    
+    private static long apply(long mask, @NotNull long[] masks) {
+        return (mask & ~masks[0]) | masks[1];
+    }
+
+    /**
+     * Read a section of flag values into {set, value} masks.
+     */
+    private static void readFlags(@Nullable ConfigurationSection section, @NotNull String path,
+                                  @NotNull Logger logger, @NotNull long[] masks) {
+        masks[0] = 0;
+        masks[1] = 0;
+        if (section == null) {
+            return;
+        }
+        for (String key : section.getKeys(false)) {
+            Flag flag = Flag.byName(key);
+            if (flag == null) {
+                logger.warning("Unknown flag '" + key + "' in " + path + ", ignoring");
+                continue;
+            }
+            Object raw = section.get(key);
+            if ("default".equals(raw)) {
+                continue;
+            }
+            Boolean value = parseValue(raw);
+            if (value == null) {
+                logger.warning("Invalid value '" + raw + "' for " + path + "." + key + ", ignoring");
+                continue;
+            }
+            long bit = 1L << flag.ordinal();
+            masks[0] |= bit;
+            masks[1] = value ? masks[1] | bit : masks[1] & ~bit;
+        }
+    }
+
+    @Nullable
+    private static Boolean parseValue(@Nullable Object raw) {
+        if (raw instanceof Boolean) {
+            return (Boolean) raw;
+        }
+        if (raw == null) {
+            return null;
+        }
+        switch (raw.toString().toLowerCase(Locale.ROOT)) {
+            case "allow": case "true": case "on": case "1":
+                return true;
+            case "deny": case "false": case "off": case "0":
+                return false;
+            default:
+                return null;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.worldprotect.flags;
 
 import com.worldprotect.area.Area;
+import com.worldprotect.area.AreaSet;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -21,6 +22,26 @@ public class FlagResolver {
         NONMEMBER
     }
     
+    private static volatile FlagDefaults defaults = FlagDefaults.BUILTIN;
+    
+    /**
+     * Get the fallback values used for flags no area sets.
+     * @return the compiled defaults
+     */
+    @NotNull
+    public static FlagDefaults getDefaults() {
+        return defaults;
+    }
+    
+    /**
+     * Replace the fallback values, e.g. after a config reload.
+     * Use {@link com.worldprotect.area.AreaManager#setFlagDefaults} so caches are invalidated.
+     * @param flagDefaults the compiled defaults
+     */
+    public static void setDefaults(@NotNull FlagDefaults flagDefaults) {
+        defaults = flagDefaults;
+    }
+    
     /**
      * Get the effective value of a flag at a specific location.
      * @param areas list of areas containing the location (sorted by priority)
@@ -30,27 +51,21 @@ public class FlagResolver {
      */
     public static boolean getEffectiveFlagValue(@NotNull List<Area> areas, @NotNull String flagName,
                                                 @Nullable Player player) {
-        if (areas.isEmpty()) {
-            // No areas at this location, return default
-            Flag flag = Flag.byName(flagName);
-            return flag != null ? flag.getDefaultValue() : true;
-        }
-        
-        // Determine subject group
-        SubjectGroup subjectGroup = getSubjectGroup(areas, player);
-        
         // Check for atomic flag overrides first
         Flag atomicFlag = Flag.byName(flagName);
         if (atomicFlag != null) {
-            Boolean atomicValue = getAtomicFlagValue(areas, atomicFlag, subjectGroup);
-            if (atomicValue != null) {
-                return atomicValue;
-            }
+            return getEffectiveFlagValue(areas, atomicFlag, player);
+        }
+        
+        if (areas.isEmpty()) {
+            // No areas at this location, return default
+            return true;
         }
         
         // Check group flags
         GroupFlag groupFlag = GroupFlag.byName(flagName);
         if (groupFlag != null) {
+            SubjectGroup subjectGroup = getSubjectGroup(areas, player);
             Boolean groupValue = getGroupFlagValue(areas, groupFlag, subjectGroup);
             if (groupValue != null) {
                 return groupValue;
@@ -58,28 +73,111 @@ public class FlagResolver {
         }
         
         // Return default if no explicit value found
-        return atomicFlag != null ? atomicFlag.getDefaultValue() : true;
+        return true;
     }
     
     /**
-     * Get the atomic flag value from areas, respecting priority.
+     * Get the effective value of an atomic flag without a name lookup.
+     * @param areas list of areas containing the location (sorted by priority)
+     * @param flag the flag to check
+     * @param player the player to check membership for (nullable)
+     * @return the effective flag value
+     */
+    public static boolean getEffectiveFlagValue(@NotNull List<Area> areas, @NotNull Flag flag,
+                                                @Nullable Player player) {
+        if (areas.isEmpty()) {
+            // No areas at this location, return default
+            return defaults.getDefaultValue(flag, null, null);
+        }
+        
+        // Determine subject group
+        return getEffectiveFlagValue(areas, flag, getSubjectGroup(areas, player));
+    }
+    
+    /**
+     * Get the effective value of an atomic flag from an interned area set.
+     * This is a single table read once the set's table is built.
+     * @param areaSet the areas containing the location
+     * @param flag the flag to check
+     * @param player the player to check membership for (nullable)
+     * @return the effective flag value
+     */
+    public static boolean getEffectiveFlagValue(@NotNull AreaSet areaSet, @NotNull Flag flag,
+                                                @Nullable Player player) {
+        return areaSet.isAllowed(flag, player);
+    }
+    
+    /**
+     * Get the effective value of an atomic flag for a known subject group.
+     * The first area in priority order that sets the flag, explicitly or through
+     * one of its group flags, decides; within an area the explicit value wins.
+     * If no area sets it, the configured default ({@link FlagDefaults}) applies.
+     * @param areas list of areas containing the location (sorted by priority)
+     * @param flag the flag to check
+     * @param subjectGroup the subject group
+     * @return the effective flag value
+     */
+    public static boolean getEffectiveFlagValue(@NotNull List<Area> areas, @NotNull Flag flag,
+                                                @NotNull SubjectGroup subjectGroup) {
+        Boolean areaValue = getAreaFlagValue(areas, flag, subjectGroup);
+        return areaValue != null ? areaValue : getDefaultValue(areas, flag, subjectGroup);
+    }
+    
+    /**
+     * Get the effective value of a group flag for a known subject group.
+     * @param areas list of areas containing the location (sorted by priority)
+     * @param groupFlag the group flag to check
+     * @param subjectGroup the subject group
+     * @return the effective group flag value (true if not set)
+     */
+    public static boolean getEffectiveFlagValue(@NotNull List<Area> areas, @NotNull GroupFlag groupFlag,
+                                                @NotNull SubjectGroup subjectGroup) {
+        Boolean groupValue = getGroupFlagValue(areas, groupFlag, subjectGroup);
+        return groupValue != null ? groupValue : true;
+    }
+    
+    /**
+     * Get the atomic flag value from the first area that sets it, explicitly or
+     * through a group flag.
      * @param areas areas sorted by priority
      * @param flag the atomic flag
      * @param subjectGroup the subject group
-     * @return the flag value, or null if not explicitly set
+     * @return the flag value, or null if no area sets it
      */
     @Nullable
-    private static Boolean getAtomicFlagValue(@NotNull List<Area> areas, @NotNull Flag flag,
-                                              @NotNull SubjectGroup subjectGroup) {
-        for (Area area : areas) {
-            Boolean value = area.getFlagValue(flag, subjectGroup);
-            if (value != null) {
-                return value;
+    private static Boolean getAreaFlagValue(@NotNull List<Area> areas, @NotNull Flag flag,
+                                            @NotNull SubjectGroup subjectGroup) {
+        long bit = 1L << flag.ordinal();
+        // Indexed loop so hot-path checks don't allocate an iterator
+        for (int i = 0; i < areas.size(); i++) {
+            Area area = areas.get(i);
+            if ((area.getEffectiveFlagSetMask(subjectGroup) & bit) != 0) {
+                return (area.getEffectiveFlagValueMask(subjectGroup) & bit) != 0;
             }
         }
         return null;
     }
     
+    /**
+     * Get the configured default of an atomic flag for the areas' world. Subject
+     * group defaults only apply inside areas.
+     */
+    private static boolean getDefaultValue(@NotNull List<Area> areas, @NotNull Flag flag,
+                                           @NotNull SubjectGroup subjectGroup) {
+        if (areas.isEmpty()) {
+            return defaults.getDefaultValue(flag, null, null);
+        }
+        return defaults.getDefaultValue(flag, areas.get(0).getWorldName(), isClaimed(areas) ? subjectGroup : null);
+    }
+    
+    /**
+     * Check whether the areas include one with geometry. Fallback regions sort
+     * last, so only the first needs checking.
+     */
+    private static boolean isClaimed(@NotNull List<Area> areas) {
+        return !areas.isEmpty() && !areas.get(0).isFallback();
+    }
+    
     /**
      * Get the group flag value from areas, respecting priority.
      * @param areas areas sorted by priority
@@ -90,17 +188,19 @@ public class FlagResolver {
     @Nullable
     private static Boolean getGroupFlagValue(@NotNull List<Area> areas, @NotNull GroupFlag groupFlag,
                                              @NotNull SubjectGroup subjectGroup) {
-        for (Area area : areas) {
-            Boolean value = area.getGroupFlagValue(groupFlag, subjectGroup);
-            if (value != null) {
-                return value;
+        int bit = 1 << groupFlag.ordinal();
+        for (int i = 0; i < areas.size(); i++) {
+            Area area = areas.get(i);
+            if ((area.getGroupFlagSetMask(subjectGroup) & bit) != 0) {
+                return (area.getGroupFlagValueMask(subjectGroup) & bit) != 0;
             }
         }
         return null;
     }
     
     /**
-     * Determine the subject group for a player relative to areas.
+     * Determine the subject group for a player relative to areas. Fallback
+     * regions sort last and only count when no area with geometry applies.
      * @param areas areas to check membership in
      * @param player the player (nullable)
      * @return the subject group
@@ -111,16 +211,22 @@ public class FlagResolver {
             return SubjectGroup.NONMEMBER;
         }
         
+        UUID playerId = player.getUniqueId();
+        int end = isClaimed(areas) ? 0 : areas.size();
+        while (end < areas.size() && !areas.get(end).isFallback()) {
+            end++;
+        }
+        
         // Check if player is owner of any area
-        for (Area area : areas) {
-            if (area.isOwner(player.getUniqueId())) {
+        for (int i = 0; i < end; i++) {
+            if (areas.get(i).isOwner(playerId)) {
                 return SubjectGroup.OWNER;
             }
         }
         
         // Check if player is member of any area
-        for (Area area : areas) {
-            if (area.isMember(player.getUniqueId())) {
+        for (int i = 0; i < end; i++) {
+            if (areas.get(i).isMember(playerId)) {
                 return SubjectGroup.MEMBER;
             }
         }
@@ -128,6 +234,62 @@ public class FlagResolver {
         return SubjectGroup.NONMEMBER;
     }
     
+    /**
+     * Resolve every atomic and group flag in one pass over the areas.
+     * @param areas areas containing the location (sorted by priority)
+     * @param player the player (nullable)
+     * @return the effective values for the player's subject group
+     */
+    @NotNull
+    public static EffectiveFlags resolveAll(@NotNull List<Area> areas, @Nullable Player player) {
+        return resolveAll(areas, getSubjectGroup(areas, player));
+    }
+    
+    /**
+     * Resolve every atomic and group flag for a known subject group in one pass
+     * over the areas. Uses the same precedence as the single-flag overloads.
+     * @param areas areas containing the location (sorted by priority)
+     * @param subjectGroup the subject group
+     * @return the effective values
+     */
+    @NotNull
+    public static EffectiveFlags resolveAll(@NotNull List<Area> areas, @NotNull SubjectGroup subjectGroup) {
+        return resolveAll(areas.isEmpty() ? null : areas.get(0).getWorldName(), areas, subjectGroup);
+    }
+    
+    /**
+     * Resolve every atomic and group flag for a known subject group, using the
+     * defaults of a world. Needed when the areas are empty but the world is known.
+     * @param worldName the world, or null to ignore world overrides
+     * @param areas areas containing the location (sorted by priority)
+     * @param subjectGroup the subject group
+     * @return the effective values
+     */
+    @NotNull
+    public static EffectiveFlags resolveAll(@Nullable String worldName, @NotNull List<Area> areas,
+                                            @NotNull SubjectGroup subjectGroup) {
+        // Each mask records which flags an earlier area already decided
+        long flagKnown = 0;
+        long flagValue = 0;
+        int groupKnown = 0;
+        int groupValue = 0;
+        for (int i = 0; i < areas.size(); i++) {
+            Area area = areas.get(i);
+            // Group flags are folded into each area's values, explicit values first
+            long set = area.getEffectiveFlagSetMask(subjectGroup) & ~flagKnown;
+            flagValue |= area.getEffectiveFlagValueMask(subjectGroup) & set;
+            flagKnown |= set;
+            int groupSet = area.getGroupFlagSetMask(subjectGroup) & ~groupKnown;
+            groupValue |= area.getGroupFlagValueMask(subjectGroup) & groupSet;
+            groupKnown |= groupSet;
+        }
+        // Flags no area decided take the defaults
+        long fallback = defaults.getFlagMask(worldName, isClaimed(areas) ? subjectGroup : null);
+        long flags = flagValue | (fallback & ~flagKnown);
+        int groupFlags = groupValue | (EffectiveFlags.DEFAULT_GROUP_FLAGS & ~groupKnown);
+        return new EffectiveFlags(subjectGroup, flags, groupFlags);
+    }
+    
     /**
      * Get all effective flag values at a location.
      * @param areas areas containing the location
@@ -137,21 +299,7 @@ public class FlagResolver {
     @NotNull
     public static Map<String, Boolean> getAllEffectiveFlagValues(@NotNull List<Area> areas,
                                                                  @Nullable Player player) {
-        Map<String, Boolean> result = new LinkedHashMap<>();
-        
-        // Add all atomic flags
-        for (Flag flag : Flag.values()) {
-            boolean value = getEffectiveFlagValue(areas, flag.getName(), player);
-            result.put(flag.getName(), value);
-        }
-        
-        // Add group flags
-        for (GroupFlag groupFlag : GroupFlag.values()) {
-            boolean value = getEffectiveFlagValue(areas, groupFlag.getName(), player);
-            result.put(groupFlag.getName(), value);
-        }
-        
-        return result;
+        return resolveAll(areas, player).toNameMap();
     }
     
     /**
@@ -184,38 +332,24 @@ public class FlagResolver {
                                                @Nullable Player player) {
         SubjectGroup subjectGroup = getSubjectGroup(areas, player);
         
+        // The first area that sets the flag, explicitly or through its group flags
         for (Area area : areas) {
             Boolean value = area.getFlagValue(flag, subjectGroup);
             if (value != null) {
                 return new FlagInfo(flag.getName(), value, area.getName(), true, false);
             }
-        }
-        
-        // Check group flags that include this atomic flag
-        for (Area area : areas) {
-            for (GroupFlag groupFlag : GroupFlag.values()) {
-                if (groupFlag.getAtomicFlags().contains(flag)) {
-                    Boolean groupValue = area.getGroupFlagValue(groupFlag, subjectGroup);
-                    if (groupValue != null) {
-                        // Check if atomic flag is overridden in higher priority areas
-                        boolean overridden = false;
-                        for (Area higherArea : areas) {
-                            if (higherArea == area) break; // Only check areas before current
-                            if (higherArea.getFlagValue(flag, subjectGroup) != null) {
-                                overridden = true;
-                                break;
-                            }
-                        }
-                        
-                        if (!overridden) {
-                            return new FlagInfo(flag.getName(), groupValue, area.getName(), false, true);
-                        }
-                    }
+            if ((area.getInheritedFlagSetMask(subjectGroup) & (1L << flag.ordinal())) == 0) {
+                continue;
+            }
+            for (GroupFlag groupFlag : GroupFlag.getGroupsContaining(flag)) {
+                Boolean groupValue = area.getGroupFlagValue(groupFlag, subjectGroup);
+                if (groupValue != null) {
+                    return new FlagInfo(flag.getName(), groupValue, area.getName(), false, true);
                 }
             }
         }
         
-        return new FlagInfo(flag.getName(), flag.getDefaultValue(), "default", false, false);
+        return new FlagInfo(flag.getName(), getDefaultValue(areas, flag, subjectGroup), "default", false, false);
     }
     
     @NotNull
@@ -27,14 +27,48 @@ public enum GroupFlag implements ConfigurationSerializable {
     MOB_ALL("mob-all", "All mob-related flags",
             Arrays.asList(Flag.MOB_DAMAGE_PLAYERS, Flag.MOB_SPAWNING));
     
+    // Inverse of atomicFlags, indexed by Flag ordinal, groups in declaration order
+    private static final GroupFlag[][] GROUPS_BY_FLAG;
+    
+    static {
+        List<List<GroupFlag>> groups = new ArrayList<>();
+        for (int i = 0; i < Flag.values().length; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (GroupFlag groupFlag : values()) {
+            for (Flag flag : groupFlag.atomicFlags) {
+                groups.get(flag.ordinal()).add(groupFlag);
+            }
+        }
+        GROUPS_BY_FLAG = new GroupFlag[groups.size()][];
+        for (int i = 0; i < groups.size(); i++) {
+            GROUPS_BY_FLAG[i] = groups.get(i).toArray(new GroupFlag[0]);
+        }
+    }
+    
+    // Names are lowercase, so a lowercased key matches case-insensitively
+    private static final Map<String, GroupFlag> BY_NAME = new HashMap<>();
+    
+    static {
+        for (GroupFlag groupFlag : values()) {
+            BY_NAME.put(groupFlag.getName(), groupFlag);
+        }
+    }
+    
     private final String name;
     private final String description;
     private final List<Flag> atomicFlags;
+    private final long atomicFlagMask;
     
     GroupFlag(String name, String description, List<Flag> atomicFlags) {
         this.name = name;
         this.description = description;
         this.atomicFlags = atomicFlags;
+        long mask = 0;
+        for (Flag flag : atomicFlags) {
+            mask |= 1L << flag.ordinal();
+        }
+        this.atomicFlagMask = mask;
     }
     
     /**
@@ -61,18 +95,31 @@ public enum GroupFlag implements ConfigurationSerializable {
         return atomicFlags;
     }
     
+    /**
+     * Get the atomic flags included in this group as a bit mask.
+     * @return bit mask indexed by {@link Flag#ordinal()}
+     */
+    public long getAtomicFlagMask() {
+        return atomicFlagMask;
+    }
+    
+    /**
+     * Get the group flags that include an atomic flag.
+     * @param flag the atomic flag
+     * @return the group flags, in declaration order
+     */
+    @NotNull
+    public static List<GroupFlag> getGroupsContaining(@NotNull Flag flag) {
+        return Collections.unmodifiableList(Arrays.asList(GROUPS_BY_FLAG[flag.ordinal()]));
+    }
+    
     /**
      * Find a group flag by name (case-insensitive).
      * @param name the group flag name
      * @return the group flag, or null if not found
      */
     public static GroupFlag byName(String name) {
-        for (GroupFlag groupFlag : values()) {
-            if (groupFlag.getName().equalsIgnoreCase(name)) {
-                return groupFlag;
-            }
-        }
-        return null;
+        return name != null ? BY_NAME.get(name.toLowerCase(Locale.ROOT)) : null;
     }
     
     /**
@@ -0,0 +1,121 @@
+package com.worldprotect.listener;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches whether players bypass area protection, so protection checks don't
+ * walk the permission attachments on every event.
+ *
+ * <p>Entries are filled on join and re-checked on world change, on reload and
+ * by a periodic refresh, since Bukkit has no event for permission changes.
+ * Players with the permission can switch bypass off (or, with
+ * {@code regions.bypass-requires-toggle}, on) for their session with
+ * {@code /wp bypass}.</p>
+ */
+public class BypassCache implements Listener {
+
+    /** The permission that grants bypass. */
+    public static final String PERMISSION = "worldprotect.bypass";
+
+    private final Map<UUID, Boolean> bypassing = new ConcurrentHashMap<>();
+    // Explicit session choices of players with the permission
+    private final Map<UUID, Boolean> toggled = new ConcurrentHashMap<>();
+    private volatile boolean requiresToggle;
+
+    /**
+     * @param requiresToggle whether bypass starts off each session ({@code regions.bypass-requires-toggle})
+     */
+    public BypassCache(boolean requiresToggle) {
+        this.requiresToggle = requiresToggle;
+    }
+
+    /**
+     * Check whether a player bypasses area protection.
+     * @param player the player
+     * @return true if protection checks should skip the player
+     */
+    public boolean canBypass(@NotNull Player player) {
+        Boolean cached = bypassing.get(player.getUniqueId());
+        return cached != null ? cached : refresh(player);
+    }
+
+    /**
+     * Re-check a player's permission and session toggle.
+     * @param player the player
+     * @return whether the player now bypasses protection
+     */
+    public boolean refresh(@NotNull Player player) {
+        UUID playerId = player.getUniqueId();
+        boolean bypass = player.hasPermission(PERMISSION)
+            && toggled.getOrDefault(playerId, !requiresToggle);
+        bypassing.put(playerId, bypass);
+        return bypass;
+    }
+
+    /**
+     * Re-check every online player, e.g. after a reload or a permission change.
+     * @param players the online players
+     */
+    public void refreshAll(@NotNull Collection<? extends Player> players) {
+        bypassing.clear();
+        for (Player player : players) {
+            refresh(player);
+        }
+    }
+
+    /**
+     * Switch bypass for the rest of a player's session.
+     * @param player the player, who must have the bypass permission
+     * @return whether the player now bypasses protection
+     */
+    public boolean toggle(@NotNull Player player) {
+        UUID playerId = player.getUniqueId();
+        toggled.put(playerId, !canBypass(player));
+        return refresh(player);
+    }
+
+    /**
+     * Forget a player's cached state and session toggle.
+     * @param playerId the player UUID
+     */
+    public void invalidate(@NotNull UUID playerId) {
+        bypassing.remove(playerId);
+        toggled.remove(playerId);
+    }
+
+    /**
+     * Change whether bypass starts off each session. Explicit toggles are kept.
+     * @param requiresToggle the new setting
+     */
+    public void setRequiresToggle(boolean requiresToggle) {
+        this.requiresToggle = requiresToggle;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        // Permission plugins may grant per-world permissions
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+}
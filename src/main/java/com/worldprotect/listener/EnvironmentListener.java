@@ -0,0 +1,72 @@
+package com.worldprotect.listener;
+
+import com.worldprotect.WorldProtectPlugin;
+import com.worldprotect.flags.Flag;
+import org.bukkit.Material;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Handles block changes the world makes on its own: crop growth, grass spread
+ * and leaf decay. These are among the most frequent block events, so they are
+ * checked through the {@link SectionVerdictCache} rather than a lookup per
+ * event, and each handler is only registered while its flag is in use.
+ */
+public class EnvironmentListener {
+
+    private final WorldProtectPlugin plugin;
+
+    public EnvironmentListener(@NotNull WorldProtectPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Add the handlers to a registry, one per flag.
+     * @param registry the registry
+     */
+    public void registerWith(@NotNull FlagHandlerRegistry registry) {
+        registry.add(new CropGrowth(), Flag.CROP_GROWTH);
+        registry.add(new GrassSpread(), Flag.GRASS_SPREAD);
+        registry.add(new LeafDecay(), Flag.LEAF_DECAY);
+    }
+
+    private final class CropGrowth implements Listener {
+
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onBlockGrow(BlockGrowEvent event) {
+            if (!plugin.getSectionVerdicts().isAllowed(event.getBlock(), Flag.CROP_GROWTH)) {
+                event.setCancelled(true);
+            }
+        }
+    }
+
+    private final class GrassSpread implements Listener {
+
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onBlockSpread(BlockSpreadEvent event) {
+            // Fire, vines and the like spread through the same event
+            Material type = event.getSource().getType();
+            if (type != Material.GRASS_BLOCK && type != Material.MYCELIUM) {
+                return;
+            }
+            if (!plugin.getSectionVerdicts().isAllowed(event.getBlock(), Flag.GRASS_SPREAD)) {
+                event.setCancelled(true);
+            }
+        }
+    }
+
+    private final class LeafDecay implements Listener {
+
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onLeavesDecay(LeavesDecayEvent event) {
+            if (!plugin.getSectionVerdicts().isAllowed(event.getBlock(), Flag.LEAF_DECAY)) {
+                event.setCancelled(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.worldprotect.listener;
+
+import com.worldprotect.WorldProtectPlugin;
+import com.worldprotect.area.FlagUsage;
+import com.worldprotect.flags.Flag;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps protection handlers registered only while one of their flags is in
+ * use according to {@link FlagUsage}, so servers don't dispatch events that
+ * no area or default protects against.
+ *
+ * <p>Usage changes can come from any thread; registrations are brought up to
+ * date in one task on the main thread.</p>
+ */
+public class FlagHandlerRegistry implements FlagUsage.UsageListener {
+
+    private final WorldProtectPlugin plugin;
+    private final FlagUsage usage;
+    // Handlers with the flags they enforce
+    private final Map<Listener, Long> handlers = new LinkedHashMap<>();
+    private final Set<Listener> registered = new HashSet<>();
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    public FlagHandlerRegistry(@NotNull WorldProtectPlugin plugin, @NotNull FlagUsage usage) {
+        this.plugin = plugin;
+        this.usage = usage;
+    }
+
+    /**
+     * Add a handler, registered with Bukkit while any of its flags is in use.
+     * @param handler the handler
+     * @param flags the flags it enforces
+     */
+    public synchronized void add(@NotNull Listener handler, @NotNull Flag... flags) {
+        long mask = 0;
+        for (Flag flag : flags) {
+            mask |= 1L << flag.ordinal();
+        }
+        handlers.merge(handler, mask, (a, b) -> a | b);
+    }
+
+    /**
+     * Register the handlers whose flags are in use and follow usage changes from now on.
+     */
+    public void start() {
+        usage.addListener(this);
+        sync();
+    }
+
+    /**
+     * Unregister every handler and stop following usage changes.
+     */
+    public synchronized void stop() {
+        usage.removeListener(this);
+        for (Listener handler : registered) {
+            HandlerList.unregisterAll(handler);
+        }
+        registered.clear();
+    }
+
+    /**
+     * Check whether a handler is currently registered with Bukkit.
+     * @param handler the handler
+     * @return true if registered
+     */
+    public synchronized boolean isRegistered(@NotNull Listener handler) {
+        return registered.contains(handler);
+    }
+
+    /**
+     * Get the number of handlers currently registered with Bukkit.
+     * @return the registered count
+     */
+    public synchronized int getRegisteredCount() {
+        return registered.size();
+    }
+
+    /**
+     * Get the number of handlers, registered or not.
+     * @return the handler count
+     */
+    public synchronized int getHandlerCount() {
+        return handlers.size();
+    }
+
+    @Override
+    public void onUsageChange(long inUse) {
+        // One task catches up with any number of changes
+        if (pending.compareAndSet(false, true)) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                pending.set(false);
+                sync();
+            });
+        }
+    }
+
+    /**
+     * Register and unregister handlers to match the flags in use.
+     */
+    private synchronized void sync() {
+        long inUse = usage.getInUseMask();
+        for (Map.Entry<Listener, Long> entry : handlers.entrySet()) {
+            Listener handler = entry.getKey();
+            if ((inUse & entry.getValue()) != 0) {
+                if (registered.add(handler)) {
+                    plugin.getServer().getPluginManager().registerEvents(handler, plugin);
+                }
+            } else if (registered.remove(handler)) {
+                HandlerList.unregisterAll(handler);
+            }
+        }
+    }
+}
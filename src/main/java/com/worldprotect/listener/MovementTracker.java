@@ -0,0 +1,245 @@
+package com.worldprotect.listener;
+
+import com.worldprotect.WorldProtectPlugin;
+import com.worldprotect.area.Area;
+import com.worldprotect.area.AreaManager;
+import com.worldprotect.area.AreaSet;
+import com.worldprotect.flags.Flag;
+import com.worldprotect.flags.FlagResolver;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enforces {@link Flag#ENTRY} and {@link Flag#LEAVE} and sends the entry and
+ * leave notifications of areas set to {@code notify}.
+ *
+ * <p>Each player's block position and interned {@link AreaSet} are kept
+ * between moves. Moves within the same block return after comparing three
+ * ints; a new block is looked up, and only if its set differs from the
+ * previous one are the entered and left areas worked out. Registered by the
+ * {@link FlagHandlerRegistry} only while entry or leave is in use.</p>
+ */
+public class MovementTracker implements Listener {
+
+    // A player pushing against a denied border repeats the message at most this often
+    private static final long DENIED_MESSAGE_INTERVAL_MILLIS = 2000;
+
+    private final WorldProtectPlugin plugin;
+    private final Map<UUID, Position> positions = new ConcurrentHashMap<>();
+
+    public MovementTracker(@NotNull WorldProtectPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Add the tracker to a registry.
+     * @param registry the registry
+     */
+    public void registerWith(@NotNull FlagHandlerRegistry registry) {
+        registry.add(this, Flag.ENTRY, Flag.LEAVE);
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        Location to = event.getTo();
+        if (to == null) {
+            return;
+        }
+        Player player = event.getPlayer();
+        Position current = positions.get(player.getUniqueId());
+        if (current != null && current.isAt(to)) {
+            return;
+        }
+        
+        Position from = positionAt(player, current, event.getFrom());
+        Position next = resolve(to);
+        if (from.areas == next.areas || from.areas.hasSameAreas(next.areas)) {
+            positions.put(player.getUniqueId(), next);
+            return;
+        }
+        
+        if (!plugin.getBypassCache().canBypass(player)) {
+            Area denied = findDenied(player, from.areas, next.areas);
+            if (denied != null) {
+                event.setCancelled(true);
+                long now = System.currentTimeMillis();
+                boolean repeated = current != null && current.denied == denied
+                    && now - current.deniedAt < DENIED_MESSAGE_INTERVAL_MILLIS;
+                if (!repeated) {
+                    player.sendMessage(next.areas.contains(denied)
+                        ? "§cYou cannot enter " + denied.getName() + "."
+                        : "§cYou cannot leave " + denied.getName() + ".");
+                }
+                positions.put(player.getUniqueId(), from.deniedBy(denied, repeated ? current.deniedAt : now));
+                return;
+            }
+        }
+        positions.put(player.getUniqueId(), next);
+        notifyChanges(player, from.areas, next.areas);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        // Teleports are governed by teleport-in and teleport-out; only follow them here
+        Location to = event.getTo();
+        if (to == null) {
+            return;
+        }
+        Player player = event.getPlayer();
+        Position from = positionAt(player, positions.get(player.getUniqueId()), event.getFrom());
+        Position next = resolve(to);
+        positions.put(player.getUniqueId(), next);
+        if (from.areas != next.areas && !from.areas.hasSameAreas(next.areas)) {
+            notifyChanges(player, from.areas, next.areas);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        positions.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Get the tracked position of a player at a location, resolving it again if
+     * the player wasn't tracked there or areas changed since.
+     */
+    @NotNull
+    private Position positionAt(@NotNull Player player, Position current, @NotNull Location location) {
+        if (current != null && current.isAt(location)
+            && current.epoch == plugin.getAreaManager().getEpoch()) {
+            return current;
+        }
+        return resolve(location);
+    }
+
+    @NotNull
+    private Position resolve(@NotNull Location location) {
+        AreaManager areaManager = plugin.getAreaManager();
+        // Read the epoch first, so a change during the lookup forces another one
+        long epoch = areaManager.getEpoch();
+        World world = location.getWorld();
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+        return new Position(world, x, y, z, areaManager.getAreaSetAt(world, x, y, z), epoch);
+    }
+
+    /**
+     * Find an area the player may not leave or enter on this move.
+     * @return the first such area, or null if the move is allowed
+     */
+    private Area findDenied(@NotNull Player player, @NotNull AreaSet from, @NotNull AreaSet to) {
+        List<Area> left = from.getAreas();
+        for (int i = 0; i < left.size(); i++) {
+            Area area = left.get(i);
+            if (!to.contains(area) && !isAllowed(area, Flag.LEAVE, player)) {
+                return area;
+            }
+        }
+        List<Area> entered = to.getAreas();
+        for (int i = 0; i < entered.size(); i++) {
+            Area area = entered.get(i);
+            if (!from.contains(area) && !isAllowed(area, Flag.ENTRY, player)) {
+                return area;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get an area's own value of a flag for a player, ignoring overlapping areas:
+     * leaving a plot inside a town doesn't leave the town. Falls back to the
+     * defaults only if the area sets nothing, explicitly or through a group flag.
+     */
+    private static boolean isAllowed(@NotNull Area area, @NotNull Flag flag, @NotNull Player player) {
+        UUID playerId = player.getUniqueId();
+        FlagResolver.SubjectGroup subjectGroup = area.isOwner(playerId) ? FlagResolver.SubjectGroup.OWNER
+            : area.isMember(playerId) ? FlagResolver.SubjectGroup.MEMBER
+            : FlagResolver.SubjectGroup.NONMEMBER;
+        long bit = 1L << flag.ordinal();
+        if ((area.getEffectiveFlagSetMask(subjectGroup) & bit) != 0) {
+            return (area.getEffectiveFlagValueMask(subjectGroup) & bit) != 0;
+        }
+        return FlagResolver.getDefaults().getDefaultValue(flag, area.getWorldName(), subjectGroup);
+    }
+
+    /**
+     * Send the leave and entry notifications of the areas a move crossed.
+     */
+    private void notifyChanges(@NotNull Player player, @NotNull AreaSet from, @NotNull AreaSet to) {
+        List<Area> left = from.getAreas();
+        for (int i = 0; i < left.size(); i++) {
+            Area area = left.get(i);
+            if (area.isNotify(Flag.LEAVE) && !to.contains(area)) {
+                player.sendMessage("§7Leaving §6" + area.getName());
+            }
+        }
+        List<Area> entered = to.getAreas();
+        for (int i = 0; i < entered.size(); i++) {
+            Area area = entered.get(i);
+            if (area.isNotify(Flag.ENTRY) && !from.contains(area)) {
+                player.sendMessage("§7Entering §6" + area.getName());
+            }
+        }
+    }
+
+    /**
+     * A player's block position and the areas there, with the area that last
+     * stopped the player from moving on. Immutable.
+     */
+    private static final class Position {
+        final World world;
+        final int x;
+        final int y;
+        final int z;
+        final AreaSet areas;
+        // Manager epoch the areas were resolved at
+        final long epoch;
+        // Area that denied the last move from here, and when its message was sent
+        final Area denied;
+        final long deniedAt;
+
+        Position(World world, int x, int y, int z, @NotNull AreaSet areas, long epoch) {
+            this(world, x, y, z, areas, epoch, null, 0);
+        }
+
+        private Position(World world, int x, int y, int z, @NotNull AreaSet areas, long epoch,
+                         Area denied, long deniedAt) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.areas = areas;
+            this.epoch = epoch;
+            this.denied = denied;
+            this.deniedAt = deniedAt;
+        }
+
+        /**
+         * Get this position after an area denied a move from it.
+         * @param deniedAt when the denial message was last sent
+         */
+        @NotNull
+        Position deniedBy(@NotNull Area area, long deniedAt) {
+            return new Position(world, x, y, z, areas, epoch, area, deniedAt);
+        }
+
+        boolean isAt(@NotNull Location location) {
+            return location.getBlockX() == x && location.getBlockY() == y && location.getBlockZ() == z
+                && location.getWorld() == world;
+        }
+    }
+}
@@ -2,10 +2,13 @@ package com.worldprotect.listener;
 
 import com.worldprotect.WorldProtectPlugin;
 import com.worldprotect.area.Area;
+import com.worldprotect.area.AreaManager;
+import com.worldprotect.area.AreaSet;
 import com.worldprotect.flags.Flag;
 import com.worldprotect.flags.FlagResolver;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.*;
 import org.bukkit.event.EventHandler;
@@ -18,13 +21,20 @@ import org.bukkit.event.vehicle.VehicleCreateEvent;
 import org.bukkit.event.vehicle.VehicleDestroyEvent;
 import org.bukkit.event.weather.LightningStrikeEvent;
 import org.bukkit.inventory.InventoryHolder;
+import org.jetbrains.annotations.NotNull;
 
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * Main protection listener that handles all protection events.
+ *
+ * <p>Each handler is a separate listener covering the flags it enforces, so
+ * the {@link FlagHandlerRegistry} can keep it unregistered while none of them
+ * is in use. Checks of a flag that is not in use are allowed without a lookup.</p>
  */
-public class ProtectionListener implements Listener {
+public class ProtectionListener {
     
     private final WorldProtectPlugin plugin;
     
@@ -32,354 +42,453 @@ public class ProtectionListener implements Listener {
         this.plugin = plugin;
     }
     
+    /**
+     * Add the handlers to a registry.
+     * @param registry the registry
+     */
+    public void registerWith(@NotNull FlagHandlerRegistry registry) {
+        registry.add(new BlockBreakHandler(), Flag.BLOCK_BREAK);
+        registry.add(new BlockPlaceHandler(), Flag.BLOCK_PLACE);
+        registry.add(new FireSpreadHandler(), Flag.FIRE_SPREAD);
+        registry.add(new FluidFlowHandler(), Flag.LAVA_FLOW, Flag.WATER_FLOW, Flag.FLUID_LEAK);
+        registry.add(new InteractHandler(), Flag.CONTAINER_ACCESS, Flag.USE);
+        registry.add(new ItemDropHandler(), Flag.ITEM_DROP);
+        registry.add(new ItemPickupHandler(), Flag.ITEM_PICKUP);
+        registry.add(new DamageHandler(), Flag.PVP, Flag.MOB_DAMAGE_PLAYERS);
+        registry.add(new ExplosionHandler(), Flag.CREEPER_EXPLOSION, Flag.TNT, Flag.GHAST_FIREBALL);
+        registry.add(new MobSpawningHandler(), Flag.MOB_SPAWNING);
+        registry.add(new LightningHandler(), Flag.LIGHTNING);
+        registry.add(new VehiclePlaceHandler(), Flag.VEHICLE_PLACE);
+        registry.add(new VehicleDestroyHandler(), Flag.VEHICLE_DESTROY);
+        registry.add(new FormHandler(), Flag.SNOW_FALL, Flag.ICE_FORM);
+        registry.add(new FadeHandler(), Flag.SNOW_MELT, Flag.ICE_MELT);
+    }
+    
     // ========== BLOCK EVENTS ==========
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onBlockBreak(BlockBreakEvent event) {
-        Player player = event.getPlayer();
-        Block block = event.getBlock();
-        
-        // Check bypass permission
-        if (player.hasPermission("worldprotect.bypass")) {
-            return;
-        }
+    private final class BlockBreakHandler implements Listener {
         
-        // Check flag
-        boolean allowed = checkFlag(player, block.getLocation(), Flag.BLOCK_BREAK);
-        if (!allowed) {
-            event.setCancelled(true);
-            player.sendMessage("§cYou cannot break blocks here.");
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onBlockBreak(BlockBreakEvent event) {
+            Player player = event.getPlayer();
+            Block block = event.getBlock();
+            
+            // Check bypass permission
+            if (plugin.getBypassCache().canBypass(player)) {
+                return;
+            }
+            
+            // Check flag
+            boolean allowed = checkFlag(player, block, Flag.BLOCK_BREAK);
+            if (!allowed) {
+                event.setCancelled(true);
+                player.sendMessage("§cYou cannot break blocks here.");
+            }
         }
     }
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onBlockPlace(BlockPlaceEvent event) {
-        Player player = event.getPlayer();
-        Block block = event.getBlock();
+    private final class BlockPlaceHandler implements Listener {
         
-        // Check bypass permission
-        if (player.hasPermission("worldprotect.bypass")) {
-            return;
-        }
-        
-        // Check flag
-        boolean allowed = checkFlag(player, block.getLocation(), Flag.BLOCK_PLACE);
-        if (!allowed) {
-            event.setCancelled(true);
-            player.sendMessage("§cYou cannot place blocks here.");
-        }
-    }
-    
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onBlockIgnite(BlockIgniteEvent event) {
-        // Check fire spread flag
-        if (event.getCause() == BlockIgniteEvent.IgniteCause.SPREAD) {
-            boolean allowed = checkFlag(null, event.getBlock().getLocation(), Flag.FIRE_SPREAD);
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onBlockPlace(BlockPlaceEvent event) {
+            Player player = event.getPlayer();
+            Block block = event.getBlock();
+            
+            // Check bypass permission
+            if (plugin.getBypassCache().canBypass(player)) {
+                return;
+            }
+            
+            // Check flag
+            boolean allowed = checkFlag(player, block, Flag.BLOCK_PLACE);
             if (!allowed) {
                 event.setCancelled(true);
+                player.sendMessage("§cYou cannot place blocks here.");
             }
         }
     }
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onBlockFromTo(BlockFromToEvent event) {
-        Block block = event.getBlock();
-        Block toBlock = event.getToBlock();
-        Material type = block.getType();
-        
-        // Check if fluid is trying to flow INTO a protected area
-        // First check the source block location
-        boolean sourceAllowed = true;
-        boolean targetAllowed = true;
+    private final class FireSpreadHandler implements Listener {
         
-        if (type == Material.LAVA || type == Material.LAVA_BUCKET) {
-            sourceAllowed = checkFlag(null, block.getLocation(), Flag.LAVA_FLOW);
-            targetAllowed = checkFlag(null, toBlock.getLocation(), Flag.LAVA_FLOW);
-            
-            // Check fluid leak flag for target area
-            boolean fluidLeakAllowed = checkFlag(null, toBlock.getLocation(), Flag.FLUID_LEAK);
-            if (!fluidLeakAllowed) {
-                // If fluid leak is disabled, check if source is outside protected area
-                // and target is inside protected area
-                List<Area> sourceAreas = plugin.getAreaManager().getAreasAtLocation(block.getLocation());
-                List<Area> targetAreas = plugin.getAreaManager().getAreasAtLocation(toBlock.getLocation());
-                
-                // If target has areas but source doesn't (or different areas), prevent flow
-                if (!targetAreas.isEmpty() && (sourceAreas.isEmpty() || !sourceAreas.equals(targetAreas))) {
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onBlockIgnite(BlockIgniteEvent event) {
+            // Check fire spread flag
+            if (event.getCause() == BlockIgniteEvent.IgniteCause.SPREAD) {
+                boolean allowed = checkFlag(null, event.getBlock(), Flag.FIRE_SPREAD);
+                if (!allowed) {
                     event.setCancelled(true);
-                    return;
                 }
             }
         }
-        // Check water flow
-        else if (type == Material.WATER || type == Material.WATER_BUCKET) {
-            sourceAllowed = checkFlag(null, block.getLocation(), Flag.WATER_FLOW);
-            targetAllowed = checkFlag(null, toBlock.getLocation(), Flag.WATER_FLOW);
+    }
+    
+    private final class FluidFlowHandler implements Listener {
+        
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onBlockFromTo(BlockFromToEvent event) {
+            Block block = event.getBlock();
+            Block toBlock = event.getToBlock();
+            Flag flowFlag = getFlowFlag(block.getType());
+            if (flowFlag == null || !isInUse(flowFlag) && !isInUse(Flag.FLUID_LEAK)) {
+                return;
+            }
+            
+            AreaManager areaManager = plugin.getAreaManager();
+            World world = block.getWorld();
             
-            // Check fluid leak flag for target area
-            boolean fluidLeakAllowed = checkFlag(null, toBlock.getLocation(), Flag.FLUID_LEAK);
-            if (!fluidLeakAllowed) {
-                // If fluid leak is disabled, check if source is outside protected area
-                // and target is inside protected area
-                List<Area> sourceAreas = plugin.getAreaManager().getAreasAtLocation(block.getLocation());
-                List<Area> targetAreas = plugin.getAreaManager().getAreasAtLocation(toBlock.getLocation());
-                
-                // If target has areas but source doesn't (or different areas), prevent flow
-                if (!targetAreas.isEmpty() && (sourceAreas.isEmpty() || !sourceAreas.equals(targetAreas))) {
+            // Unclaimed on both sides: only fallback regions and defaults apply, and nothing can leak
+            if (!areaManager.hasAreasInChunk(world, block.getX() >> 4, block.getZ() >> 4)
+                && !areaManager.hasAreasInChunk(world, toBlock.getX() >> 4, toBlock.getZ() >> 4)) {
+                if (!areaManager.getUnclaimedSet(world).isAllowed(flowFlag, FlagResolver.SubjectGroup.NONMEMBER)) {
                     event.setCancelled(true);
-                    return;
                 }
+                return;
             }
-        }
-        
-        // Cancel if either source or target doesn't allow flow
-        if (!sourceAllowed || !targetAllowed) {
-            event.setCancelled(true);
-        }
-    }
-    
-    // ========== PLAYER EVENTS ==========
-    
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onPlayerInteract(PlayerInteractEvent event) {
-        Player player = event.getPlayer();
-        Block block = event.getClickedBlock();
-        
-        if (block == null) {
-            return;
-        }
-        
-        // Check bypass permission
-        if (player.hasPermission("worldprotect.bypass")) {
-            return;
-        }
-        
-        // Check container access
-        if (block.getState() instanceof InventoryHolder) {
-            boolean allowed = checkFlag(player, block.getLocation(), Flag.CONTAINER_ACCESS);
-            if (!allowed) {
+            
+            AreaSet source = areaManager.getAreaSetAt(world, block.getX(), block.getY(), block.getZ());
+            AreaSet target = areaManager.getAreaSetAt(world, toBlock.getX(), toBlock.getY(), toBlock.getZ());
+            
+            // Cancel if either source or target doesn't allow flow
+            if (!source.isAllowed(flowFlag, FlagResolver.SubjectGroup.NONMEMBER)
+                || !target.isAllowed(flowFlag, FlagResolver.SubjectGroup.NONMEMBER)) {
                 event.setCancelled(true);
-                player.sendMessage("§cYou cannot access containers here.");
                 return;
             }
-        }
-        
-        // Check use flag for doors, buttons, levers, etc.
-        Material type = block.getType();
-        if (type == Material.OAK_DOOR || type == Material.IRON_DOOR || 
-            type == Material.OAK_BUTTON || type == Material.STONE_BUTTON ||
-            type == Material.LEVER || type == Material.OAK_TRAPDOOR ||
-            type == Material.IRON_TRAPDOOR) {
-            boolean allowed = checkFlag(player, block.getLocation(), Flag.USE);
-            if (!allowed) {
+            
+            // Fluid leaks when it enters areas it didn't come from
+            if (!target.isEmpty() && !source.hasSameAreas(target)
+                && !target.isAllowed(Flag.FLUID_LEAK, FlagResolver.SubjectGroup.NONMEMBER)) {
                 event.setCancelled(true);
-                player.sendMessage("§cYou cannot use that here.");
             }
         }
     }
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onPlayerDropItem(PlayerDropItemEvent event) {
-        Player player = event.getPlayer();
-        
-        // Check bypass permission
-        if (player.hasPermission("worldprotect.bypass")) {
-            return;
+    /**
+     * Get the flow flag of a fluid block type.
+     * @return the flag, or null if the type isn't a fluid
+     */
+    private static Flag getFlowFlag(Material type) {
+        if (type == Material.LAVA || type == Material.LAVA_BUCKET) {
+            return Flag.LAVA_FLOW;
         }
-        
-        // Check flag
-        boolean allowed = checkFlag(player, player.getLocation(), Flag.ITEM_DROP);
-        if (!allowed) {
-            event.setCancelled(true);
-            player.sendMessage("§cYou cannot drop items here.");
+        if (type == Material.WATER || type == Material.WATER_BUCKET) {
+            return Flag.WATER_FLOW;
         }
+        return null;
     }
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onPlayerPickupItem(PlayerPickupItemEvent event) {
-        Player player = event.getPlayer();
-        
-        // Check bypass permission
-        if (player.hasPermission("worldprotect.bypass")) {
-            return;
-        }
+    // ========== PLAYER EVENTS ==========
+    
+    private final class InteractHandler implements Listener {
         
-        // Check flag
-        boolean allowed = checkFlag(player, player.getLocation(), Flag.ITEM_PICKUP);
-        if (!allowed) {
-            event.setCancelled(true);
-            // Note: PlayerPickupItemEvent is deprecated in newer versions
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onPlayerInteract(PlayerInteractEvent event) {
+            Player player = event.getPlayer();
+            Block block = event.getClickedBlock();
+            
+            if (block == null) {
+                return;
+            }
+            
+            // Check bypass permission
+            if (plugin.getBypassCache().canBypass(player)) {
+                return;
+            }
+            
+            // Check container access
+            if (block.getState() instanceof InventoryHolder) {
+                boolean allowed = checkFlag(player, block, Flag.CONTAINER_ACCESS);
+                if (!allowed) {
+                    event.setCancelled(true);
+                    player.sendMessage("§cYou cannot access containers here.");
+                    return;
+                }
+            }
+            
+            // Check use flag for doors, buttons, levers, etc.
+            Material type = block.getType();
+            if (type == Material.OAK_DOOR || type == Material.IRON_DOOR || 
+                type == Material.OAK_BUTTON || type == Material.STONE_BUTTON ||
+                type == Material.LEVER || type == Material.OAK_TRAPDOOR ||
+                type == Material.IRON_TRAPDOOR) {
+                boolean allowed = checkFlag(player, block, Flag.USE);
+                if (!allowed) {
+                    event.setCancelled(true);
+                    player.sendMessage("§cYou cannot use that here.");
+                }
+            }
         }
     }
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
-        Entity damager = event.getDamager();
-        Entity entity = event.getEntity();
+    private final class ItemDropHandler implements Listener {
         
-        // Check PvP
-        if (damager instanceof Player && entity instanceof Player) {
-            Player attacker = (Player) damager;
-            Player victim = (Player) entity;
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onPlayerDropItem(PlayerDropItemEvent event) {
+            Player player = event.getPlayer();
             
             // Check bypass permission
-            if (attacker.hasPermission("worldprotect.bypass")) {
+            if (plugin.getBypassCache().canBypass(player)) {
                 return;
             }
             
             // Check flag
-            boolean allowed = checkFlag(attacker, victim.getLocation(), Flag.PVP);
+            boolean allowed = checkFlag(player, player.getLocation(), Flag.ITEM_DROP);
             if (!allowed) {
                 event.setCancelled(true);
-                attacker.sendMessage("§cPvP is disabled here.");
+                player.sendMessage("§cYou cannot drop items here.");
             }
         }
-        // Check mob damage to players
-        else if (damager instanceof Monster && entity instanceof Player) {
-            Player player = (Player) entity;
-            boolean allowed = checkFlag(player, player.getLocation(), Flag.MOB_DAMAGE_PLAYERS);
+    }
+    
+    private final class ItemPickupHandler implements Listener {
+        
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onPlayerPickupItem(PlayerPickupItemEvent event) {
+            Player player = event.getPlayer();
+            
+            // Check bypass permission
+            if (plugin.getBypassCache().canBypass(player)) {
+                return;
+            }
+            
+            // Check flag
+            boolean allowed = checkFlag(player, player.getLocation(), Flag.ITEM_PICKUP);
             if (!allowed) {
                 event.setCancelled(true);
+                // Note: PlayerPickupItemEvent is deprecated in newer versions
+            }
+        }
+    }
+    
+    private final class DamageHandler implements Listener {
+        
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
+            Entity damager = event.getDamager();
+            Entity entity = event.getEntity();
+            
+            // Check PvP
+            if (damager instanceof Player && entity instanceof Player) {
+                Player attacker = (Player) damager;
+                Player victim = (Player) entity;
+            
+                // Check bypass permission
+                if (plugin.getBypassCache().canBypass(attacker)) {
+                    return;
+                }
+            
+                // Check flag
+                boolean allowed = checkFlag(attacker, victim.getLocation(), Flag.PVP);
+                if (!allowed) {
+                    event.setCancelled(true);
+                    attacker.sendMessage("§cPvP is disabled here.");
+                }
+            }
+            // Check mob damage to players
+            else if (damager instanceof Monster && entity instanceof Player) {
+                Player player = (Player) entity;
+                boolean allowed = checkFlag(player, player.getLocation(), Flag.MOB_DAMAGE_PLAYERS);
+                if (!allowed) {
+                    event.setCancelled(true);
+                }
             }
         }
     }
     
     // ========== ENTITY EVENTS ==========
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onEntityExplode(EntityExplodeEvent event) {
-        Entity entity = event.getEntity();
-        Location location = event.getLocation();
+    private final class ExplosionHandler implements Listener {
         
-        // Check explosion flags
-        if (entity instanceof Creeper) {
-            boolean allowed = checkFlag(null, location, Flag.CREEPER_EXPLOSION);
-            if (!allowed) {
-                event.setCancelled(true);
-                event.blockList().clear();
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onEntityExplode(EntityExplodeEvent event) {
+            Flag flag = getExplosionFlag(event.getEntity());
+            if (flag == null || !isInUse(flag)) {
+                return;
             }
-        } else if (entity instanceof TNTPrimed) {
-            boolean allowed = checkFlag(null, location, Flag.TNT);
-            if (!allowed) {
+            
+            // Denied at the origin: no block damage at all
+            if (!checkFlag(null, event.getLocation(), flag)) {
                 event.setCancelled(true);
                 event.blockList().clear();
+                return;
             }
-        } else if (entity instanceof Fireball) {
-            // Check for ghast fireballs
-            boolean allowed = checkFlag(null, location, Flag.GHAST_FIREBALL);
-            if (!allowed) {
-                event.setCancelled(true);
-                event.blockList().clear();
+            
+            // Otherwise spare the blocks of areas that deny it
+            List<Block> blocks = event.blockList();
+            BitSet allowed = plugin.getAreaManager().resolveFlag(blocks, flag);
+            if (allowed.cardinality() == blocks.size()) {
+                return;
+            }
+            int index = 0;
+            for (Iterator<Block> iterator = blocks.iterator(); iterator.hasNext(); index++) {
+                iterator.next();
+                if (!allowed.get(index)) {
+                    iterator.remove();
+                }
             }
         }
     }
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onCreatureSpawn(CreatureSpawnEvent event) {
-        Entity entity = event.getEntity();
+    /**
+     * Get the flag that governs an exploding entity.
+     * @return the flag, or null if explosions of that entity aren't protected
+     */
+    private static Flag getExplosionFlag(Entity entity) {
+        if (entity instanceof Creeper) {
+            return Flag.CREEPER_EXPLOSION;
+        }
+        if (entity instanceof TNTPrimed) {
+            return Flag.TNT;
+        }
+        if (entity instanceof Fireball) {
+            // Check for ghast fireballs
+            return Flag.GHAST_FIREBALL;
+        }
+        return null;
+    }
+    
+    private final class MobSpawningHandler implements Listener {
         
-        // Check mob spawning
-        if (entity instanceof Monster || entity instanceof Animals) {
-            boolean allowed = checkFlag(null, entity.getLocation(), Flag.MOB_SPAWNING);
-            if (!allowed) {
-                event.setCancelled(true);
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onCreatureSpawn(CreatureSpawnEvent event) {
+            Entity entity = event.getEntity();
+            
+            // Check mob spawning
+            if (entity instanceof Monster || entity instanceof Animals) {
+                if (!plugin.getSectionVerdicts().isAllowed(entity.getLocation(), Flag.MOB_SPAWNING)) {
+                    event.setCancelled(true);
+                }
             }
         }
     }
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onLightningStrike(LightningStrikeEvent event) {
-        boolean allowed = checkFlag(null, event.getLightning().getLocation(), Flag.LIGHTNING);
-        if (!allowed) {
-            event.setCancelled(true);
+    private final class LightningHandler implements Listener {
+        
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onLightningStrike(LightningStrikeEvent event) {
+            boolean allowed = checkFlag(null, event.getLightning().getLocation(), Flag.LIGHTNING);
+            if (!allowed) {
+                event.setCancelled(true);
+            }
         }
     }
     
     // ========== VEHICLE EVENTS ==========
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onVehicleCreate(VehicleCreateEvent event) {
-        Vehicle vehicle = event.getVehicle();
-        boolean allowed = checkFlag(null, vehicle.getLocation(), Flag.VEHICLE_PLACE);
-        if (!allowed) {
-            event.setCancelled(true);
+    private final class VehiclePlaceHandler implements Listener {
+        
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onVehicleCreate(VehicleCreateEvent event) {
+            Vehicle vehicle = event.getVehicle();
+            boolean allowed = checkFlag(null, vehicle.getLocation(), Flag.VEHICLE_PLACE);
+            if (!allowed) {
+                event.setCancelled(true);
+            }
         }
     }
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onVehicleDestroy(VehicleDestroyEvent event) {
-        Vehicle vehicle = event.getVehicle();
-        Entity attacker = event.getAttacker();
+    private final class VehicleDestroyHandler implements Listener {
         
-        if (attacker instanceof Player) {
-            Player player = (Player) attacker;
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onVehicleDestroy(VehicleDestroyEvent event) {
+            Vehicle vehicle = event.getVehicle();
+            Entity attacker = event.getAttacker();
             
-            // Check bypass permission
-            if (player.hasPermission("worldprotect.bypass")) {
-                return;
-            }
+            if (attacker instanceof Player) {
+                Player player = (Player) attacker;
             
-            boolean allowed = checkFlag(player, vehicle.getLocation(), Flag.VEHICLE_DESTROY);
-            if (!allowed) {
-                event.setCancelled(true);
-                player.sendMessage("§cYou cannot destroy vehicles here.");
+                // Check bypass permission
+                if (plugin.getBypassCache().canBypass(player)) {
+                    return;
+                }
+            
+                boolean allowed = checkFlag(player, vehicle.getLocation(), Flag.VEHICLE_DESTROY);
+                if (!allowed) {
+                    event.setCancelled(true);
+                    player.sendMessage("§cYou cannot destroy vehicles here.");
+                }
             }
         }
     }
     
     // ========== SNOW AND ICE EVENTS ==========
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onBlockForm(BlockFormEvent event) {
-        Block block = event.getBlock();
-        Material newType = event.getNewState().getType();
+    private final class FormHandler implements Listener {
         
-        // Check snow formation
-        if (newType == Material.SNOW) {
-            boolean allowed = checkFlag(null, block.getLocation(), Flag.SNOW_FALL);
-            if (!allowed) {
-                event.setCancelled(true);
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onBlockForm(BlockFormEvent event) {
+            Block block = event.getBlock();
+            Material newType = event.getNewState().getType();
+            
+            // Check snow formation
+            if (newType == Material.SNOW) {
+                boolean allowed = checkFlag(null, block, Flag.SNOW_FALL);
+                if (!allowed) {
+                    event.setCancelled(true);
+                }
             }
-        }
-        // Check ice formation
-        else if (newType == Material.ICE || newType == Material.PACKED_ICE || newType == Material.BLUE_ICE) {
-            boolean allowed = checkFlag(null, block.getLocation(), Flag.ICE_FORM);
-            if (!allowed) {
-                event.setCancelled(true);
+            // Check ice formation
+            else if (newType == Material.ICE || newType == Material.PACKED_ICE || newType == Material.BLUE_ICE) {
+                boolean allowed = checkFlag(null, block, Flag.ICE_FORM);
+                if (!allowed) {
+                    event.setCancelled(true);
+                }
             }
         }
     }
     
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onBlockFade(BlockFadeEvent event) {
-        Block block = event.getBlock();
-        Material type = block.getType();
+    private final class FadeHandler implements Listener {
         
-        // Check snow melting
-        if (type == Material.SNOW) {
-            boolean allowed = checkFlag(null, block.getLocation(), Flag.SNOW_MELT);
-            if (!allowed) {
-                event.setCancelled(true);
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void onBlockFade(BlockFadeEvent event) {
+            Block block = event.getBlock();
+            Material type = block.getType();
+            
+            // Check snow melting
+            if (type == Material.SNOW) {
+                boolean allowed = checkFlag(null, block, Flag.SNOW_MELT);
+                if (!allowed) {
+                    event.setCancelled(true);
+                }
             }
-        }
-        // Check ice melting
-        else if (type == Material.ICE || type == Material.PACKED_ICE || type == Material.BLUE_ICE) {
-            boolean allowed = checkFlag(null, block.getLocation(), Flag.ICE_MELT);
-            if (!allowed) {
-                event.setCancelled(true);
+            // Check ice melting
+            else if (type == Material.ICE || type == Material.PACKED_ICE || type == Material.BLUE_ICE) {
+                boolean allowed = checkFlag(null, block, Flag.ICE_MELT);
+                if (!allowed) {
+                    event.setCancelled(true);
+                }
             }
         }
     }
     
+    /**
+     * Check whether any area or default can deny a flag. If not, it is allowed everywhere.
+     */
+    private boolean isInUse(Flag flag) {
+        return plugin.getAreaManager().getFlagUsage().isInUse(flag);
+    }
+    
+    /**
+     * Helper method to check flag value at a block.
+     * Uses block coordinates directly so no {@link Location} is allocated.
+     */
+    private boolean checkFlag(Player player, Block block, Flag flag) {
+        if (!isInUse(flag)) {
+            return true;
+        }
+        return plugin.getAreaManager().isAllowed(block.getWorld(), block.getX(), block.getY(), block.getZ(),
+            flag, player);
+    }
+    
     /**
      * Helper method to check flag value at a location.
      */
     private boolean checkFlag(Player player, Location location, Flag flag) {
-        // Get areas at location
-        List<Area> areas = plugin.getAreaManager().getAreasAtLocation(location);
-        
-        // Use FlagResolver to get effective flag value
-        return FlagResolver.getEffectiveFlagValue(areas, flag.getName(), player);
+        if (!isInUse(flag)) {
+            return true;
+        }
+        return plugin.getAreaManager().isAllowed(location.getWorld(), location.getX(), location.getY(),
+            location.getZ(), flag, player);
     }
     
     /**
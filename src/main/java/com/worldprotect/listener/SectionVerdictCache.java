@@ -0,0 +1,253 @@
+package com.worldprotect.listener;
+
+import com.worldprotect.area.Area;
+import com.worldprotect.area.AreaChangeEvent;
+import com.worldprotect.area.AreaChangeListener;
+import com.worldprotect.area.AreaManager;
+import com.worldprotect.area.AreaSet;
+import com.worldprotect.flags.EffectiveFlags;
+import com.worldprotect.flags.Flag;
+import com.worldprotect.flags.FlagResolver;
+import com.worldprotect.util.LongLruMap;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches player-less flag verdicts, such as {@link Flag#MOB_SPAWNING} or
+ * {@link Flag#CROP_GROWTH}, per chunk section (16×16×16 blocks), so
+ * high-frequency environment events skip the area lookup.
+ *
+ * <p>A section is cached with the allowed flags of its {@link AreaSet} for
+ * nonmembers when every point in it has the same areas; sections crossed by
+ * an area edge are cached as mixed and checked per location. Each world keeps
+ * its most recently used sections up to {@code performance.section-cache-size}.
+ * Any area change in a world drops that world's sections, and unloading a
+ * chunk drops the chunk's sections.</p>
+ */
+public class SectionVerdictCache implements Listener, AreaChangeListener {
+
+    // Marks sections crossed by an area edge: a fresh instance no area set hands out, compared by identity
+    private static final EffectiveFlags MIXED = FlagResolver.resolveAll(List.of(), FlagResolver.SubjectGroup.NONMEMBER);
+
+    private final AreaManager areaManager;
+    private final int maxSections;
+    private final Map<World, Sections> sectionsByWorld = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder mixed = new LongAdder();
+
+    /**
+     * @param areaManager the area manager, which this cache must be subscribed to
+     * @param maxSections maximum cached sections per world ({@code performance.section-cache-size}, 0 disables)
+     */
+    public SectionVerdictCache(@NotNull AreaManager areaManager, int maxSections) {
+        this.areaManager = areaManager;
+        this.maxSections = Math.max(0, maxSections);
+    }
+
+    /**
+     * Check whether a flag is allowed at a location, for no player.
+     * @param location the location
+     * @param flag the flag
+     * @return the effective flag value for nonmembers
+     */
+    public boolean isAllowed(@NotNull Location location, @NotNull Flag flag) {
+        return isAllowed(location.getWorld(), location.getX(), location.getY(), location.getZ(), flag);
+    }
+
+    /**
+     * Check whether a flag is allowed at a block, for no player.
+     * @param block the block
+     * @param flag the flag
+     * @return the effective flag value for nonmembers
+     */
+    public boolean isAllowed(@NotNull Block block, @NotNull Flag flag) {
+        return isAllowed(block.getWorld(), block.getX(), block.getY(), block.getZ(), flag);
+    }
+
+    /**
+     * Check whether a flag is allowed at a point, for no player.
+     * @param world the world
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @param flag the flag
+     * @return the effective flag value for nonmembers
+     */
+    public boolean isAllowed(@NotNull World world, double x, double y, double z, @NotNull Flag flag) {
+        if (!areaManager.getFlagUsage().isInUse(flag)) {
+            return true;
+        }
+        if (maxSections == 0) {
+            return areaManager.isAllowed(world, x, y, z, flag, null);
+        }
+        int sectionX = (int) Math.floor(x) >> 4;
+        int sectionY = (int) Math.floor(y) >> 4;
+        int sectionZ = (int) Math.floor(z) >> 4;
+        long key = key(sectionX, sectionY, sectionZ);
+        Sections sections = sectionsByWorld.computeIfAbsent(world, k -> new Sections(maxSections));
+
+        // Interned sets keep their flag tables, so neither hits nor misses allocate
+        EffectiveFlags allowed;
+        int generation;
+        synchronized (sections) {
+            allowed = sections.verdicts.get(key);
+            generation = sections.generation;
+        }
+        if (allowed == null) {
+            misses.increment();
+            AreaSet set = areaManager.getSectionSet(world, sectionX, sectionY, sectionZ);
+            allowed = set != null ? set.getEffectiveFlags(FlagResolver.SubjectGroup.NONMEMBER) : MIXED;
+            synchronized (sections) {
+                // A change while resolving makes the result stale
+                if (sections.generation == generation) {
+                    sections.verdicts.put(key, allowed);
+                }
+            }
+        } else if (allowed != MIXED) {
+            hits.increment();
+        } else {
+            mixed.increment();
+        }
+
+        if (allowed == MIXED) {
+            return areaManager.isAllowed(world, x, y, z, flag, null);
+        }
+        return allowed.isAllowed(flag);
+    }
+
+    /**
+     * Drop every cached section, e.g. after new flag defaults were installed.
+     */
+    public void clear() {
+        for (Sections sections : sectionsByWorld.values()) {
+            synchronized (sections) {
+                sections.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Get the number of lookups answered from a cached section.
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of lookups that had to classify their section.
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of lookups in cached mixed sections, which still resolve
+     * their location.
+     * @return the mixed count
+     */
+    public long getMixed() {
+        return mixed.sum();
+    }
+
+    /**
+     * Get the number of cached sections over all worlds.
+     * @return the section count
+     */
+    public int size() {
+        int size = 0;
+        for (Sections sections : sectionsByWorld.values()) {
+            synchronized (sections) {
+                size += sections.verdicts.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Reset the hit, miss and mixed counters.
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        mixed.reset();
+    }
+
+    @Override
+    public void onAreaChange(@NotNull AreaChangeEvent event) {
+        if (event.getWorldName().equals(Area.ALL_WORLDS)) {
+            clear();
+            return;
+        }
+        for (Map.Entry<World, Sections> entry : sectionsByWorld.entrySet()) {
+            if (entry.getKey().getName().equals(event.getWorldName())) {
+                synchronized (entry.getValue()) {
+                    entry.getValue().invalidate();
+                }
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        World world = chunk.getWorld();
+        Sections sections = sectionsByWorld.get(world);
+        if (sections == null) {
+            return;
+        }
+        int minSection = world.getMinHeight() >> 4;
+        int maxSection = (world.getMaxHeight() - 1) >> 4;
+        synchronized (sections) {
+            for (int sectionY = minSection; sectionY <= maxSection; sectionY++) {
+                sections.verdicts.remove(key(chunk.getX(), sectionY, chunk.getZ()));
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        sectionsByWorld.remove(event.getWorld());
+    }
+
+    /**
+     * Pack section coordinates: 22 bits each for x and z, 20 for y.
+     */
+    private static long key(int sectionX, int sectionY, int sectionZ) {
+        return ((long) (sectionX & 0x3FFFFF) << 42) | ((long) (sectionZ & 0x3FFFFF) << 20) | (sectionY & 0xFFFFF);
+    }
+
+    /**
+     * The sections of one world, least recently used evicted first. Guarded by
+     * its own monitor.
+     */
+    private static final class Sections {
+
+        final LongLruMap<EffectiveFlags> verdicts;
+        int generation;
+
+        Sections(int maxSize) {
+            this.verdicts = new LongLruMap<>(maxSize);
+        }
+
+        void invalidate() {
+            generation++;
+            verdicts.clear();
+        }
+    }
+}
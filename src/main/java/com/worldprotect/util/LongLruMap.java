@@ -0,0 +1,263 @@
+package com.worldprotect.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Bounded map from primitive {@code long} keys to values that evicts the least
+ * recently used entry once full, like an access-ordered
+ * {@link java.util.LinkedHashMap} with {@code removeEldestEntry}.
+ *
+ * <p>Entries live in parallel arrays linked from least to most recently used,
+ * and an open-addressing table maps keys to them. Lookups and updates neither
+ * box the key nor allocate; the arrays grow up to the maximum size and
+ * evicted entries are reused. Instances are not thread-safe.</p>
+ *
+ * @param <V> the value type
+ */
+public final class LongLruMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    private final int maxSize;
+
+    // Entries, linked through previous and next from eldest (head) to newest (tail)
+    private long[] keys;
+    private Object[] values;
+    private int[] previous;
+    private int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+    // Removed entries, chained through next, and entries never handed out start at used
+    private int free = NONE;
+    private int used;
+    private int size;
+
+    // Hash table of entry index + 1, 0 for empty
+    private int[] slots;
+    private int mask;
+
+    /**
+     * @param maxSize maximum number of entries, at least 1
+     */
+    public LongLruMap(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        int capacity = Math.min(MIN_CAPACITY, maxSize);
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.previous = new int[capacity];
+        this.next = new int[capacity];
+        this.slots = new int[tableSizeFor(capacity)];
+        this.mask = slots.length - 1;
+    }
+
+    /**
+     * Get the value mapped to a key and mark it most recently used.
+     * @param key the key
+     * @return the value, or null if absent
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int entry = find(key);
+        if (entry == NONE) {
+            return null;
+        }
+        moveToTail(entry);
+        return (V) values[entry];
+    }
+
+    /**
+     * Map a key to a value and mark it most recently used. Adding a key to a
+     * full map evicts the least recently used entry.
+     * @param key the key
+     * @param value the value (not null)
+     */
+    public void put(long key, @NotNull V value) {
+        int entry = find(key);
+        if (entry != NONE) {
+            values[entry] = value;
+            moveToTail(entry);
+            return;
+        }
+        if (size == maxSize) {
+            removeEntry(head);
+        }
+        entry = allocate();
+        keys[entry] = key;
+        values[entry] = value;
+        linkTail(entry);
+        insertSlot(entry);
+        size++;
+    }
+
+    /**
+     * Remove a key.
+     * @param key the key
+     * @return the removed value, or null if absent
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int entry = find(key);
+        if (entry == NONE) {
+            return null;
+        }
+        V value = (V) values[entry];
+        removeEntry(entry);
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0);
+        Arrays.fill(values, 0, used, null);
+        head = NONE;
+        tail = NONE;
+        free = NONE;
+        used = 0;
+        size = 0;
+    }
+
+    private int find(long key) {
+        int index = mix(key) & mask;
+        int slot;
+        while ((slot = slots[index]) != 0) {
+            if (keys[slot - 1] == key) {
+                return slot - 1;
+            }
+            index = (index + 1) & mask;
+        }
+        return NONE;
+    }
+
+    private int allocate() {
+        if (free != NONE) {
+            int entry = free;
+            free = next[entry];
+            return entry;
+        }
+        if (used == keys.length) {
+            // Only reached below the maximum size, so the arrays can still grow
+            grow(Math.min(keys.length << 1, maxSize));
+        }
+        return used++;
+    }
+
+    private void removeEntry(int entry) {
+        int index = mix(keys[entry]) & mask;
+        while (slots[index] != entry + 1) {
+            index = (index + 1) & mask;
+        }
+        shiftBack(index);
+        unlink(entry);
+        values[entry] = null;
+        next[entry] = free;
+        free = entry;
+        size--;
+    }
+
+    private void moveToTail(int entry) {
+        if (entry != tail) {
+            unlink(entry);
+            linkTail(entry);
+        }
+    }
+
+    private void linkTail(int entry) {
+        previous[entry] = tail;
+        next[entry] = NONE;
+        if (tail == NONE) {
+            head = entry;
+        } else {
+            next[tail] = entry;
+        }
+        tail = entry;
+    }
+
+    private void unlink(int entry) {
+        int before = previous[entry];
+        int after = next[entry];
+        if (before == NONE) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tail = before;
+        } else {
+            previous[after] = before;
+        }
+    }
+
+    private void insertSlot(int entry) {
+        int index = mix(keys[entry]) & mask;
+        while (slots[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        slots[index] = entry + 1;
+    }
+
+    /**
+     * Backward-shift deletion so probe sequences stay contiguous without tombstones.
+     */
+    private void shiftBack(int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            int slot = slots[index];
+            if (slot == 0) {
+                break;
+            }
+            int home = mix(keys[slot - 1]) & mask;
+            // Move the entry into the hole if its home slot is not between the hole and its position
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                slots[hole] = slot;
+                hole = index;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        next = Arrays.copyOf(next, capacity);
+        int tableSize = tableSizeFor(capacity);
+        if (tableSize > slots.length) {
+            slots = new int[tableSize];
+            mask = tableSize - 1;
+            for (int entry = head; entry != NONE; entry = next[entry]) {
+                insertSlot(entry);
+            }
+        }
+    }
+
+    // Keeps the table at most half full
+    private static int tableSizeFor(int capacity) {
+        int size = MIN_CAPACITY;
+        while (size < capacity * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
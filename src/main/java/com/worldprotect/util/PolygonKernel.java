@@ -0,0 +1,482 @@
+package com.worldprotect.util;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precomputed form of a polygon outline for repeated containment tests.
+ *
+ * <p>Vertices are converted once with the same block-center rule as
+ * {@link PolygonGeometry.Point2D} and stored in packed arrays together with
+ * per-edge deltas. Edges are bucketed into horizontal slabs between consecutive
+ * vertex z values, so a ray-casting test only looks at the edges that can cross
+ * the queried row; slabs whose edges never cross each other are kept sorted by x
+ * and answered with a binary search. Convex outlines additionally get a fan of
+ * triangles from their first vertex, located with a binary search over the
+ * wedges. Instances are immutable.</p>
+ */
+public final class PolygonKernel {
+
+    // Vertices
+    private final double[] vertexX;
+    private final double[] vertexZ;
+
+    // Edge i runs from vertex i to vertex i + 1 (wrapping)
+    private final double[] edgeX;
+    private final double[] edgeZ;
+    private final double[] edgeDx;
+    private final double[] edgeDz;
+    private final double[] edgeLengthSquared;
+
+    // Slab k spans [slabZ[k], slabZ[k + 1]) and owns slabEdges[slabStart[k] .. slabStart[k + 1])
+    private final double[] slabZ;
+    private final int[] slabStart;
+    private final int[] slabEdges;
+    private final boolean[] slabOrdered;
+
+    // Counter-clockwise hull for the convex fast path, null if the outline is not strictly convex
+    @Nullable
+    private final double[] convexX;
+    @Nullable
+    private final double[] convexZ;
+    // Inward unit normals of the convex hull edges: signed distance = nx * x + nz * z - offset
+    @Nullable
+    private final double[] hullNormalX;
+    @Nullable
+    private final double[] hullNormalZ;
+    @Nullable
+    private final double[] hullOffset;
+
+    private PolygonKernel(@NotNull double[] vertexX, @NotNull double[] vertexZ) {
+        int n = vertexX.length;
+        this.vertexX = vertexX;
+        this.vertexZ = vertexZ;
+        this.edgeX = new double[n];
+        this.edgeZ = new double[n];
+        this.edgeDx = new double[n];
+        this.edgeDz = new double[n];
+        this.edgeLengthSquared = new double[n];
+        for (int i = 0; i < n; i++) {
+            int next = (i + 1) % n;
+            edgeX[i] = vertexX[i];
+            edgeZ[i] = vertexZ[i];
+            edgeDx[i] = vertexX[next] - vertexX[i];
+            edgeDz[i] = vertexZ[next] - vertexZ[i];
+            edgeLengthSquared[i] = edgeDx[i] * edgeDx[i] + edgeDz[i] * edgeDz[i];
+        }
+
+        // Slab boundaries are the distinct vertex z values
+        double[] sorted = vertexZ.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        this.slabZ = Arrays.copyOf(sorted, distinct);
+
+        int slabs = Math.max(0, distinct - 1);
+        this.slabStart = new int[slabs + 1];
+        this.slabOrdered = new boolean[slabs];
+        List<Integer> edges = new ArrayList<>();
+        for (int k = 0; k < slabs; k++) {
+            slabStart[k] = edges.size();
+            double low = slabZ[k];
+            double high = slabZ[k + 1];
+            double middle = (low + high) / 2;
+            List<Integer> slab = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                double edgeLow = Math.min(edgeZ[i], edgeZ[i] + edgeDz[i]);
+                double edgeHigh = Math.max(edgeZ[i], edgeZ[i] + edgeDz[i]);
+                if (edgeLow <= low && edgeHigh >= high) {
+                    slab.add(i);
+                }
+            }
+            slab.sort((a, b) -> Double.compare(crossingX(a, middle), crossingX(b, middle)));
+            slabOrdered[k] = isOrdered(slab, low) && isOrdered(slab, high);
+            edges.addAll(slab);
+        }
+        slabStart[slabs] = edges.size();
+        this.slabEdges = new int[edges.size()];
+        for (int i = 0; i < slabEdges.length; i++) {
+            slabEdges[i] = edges.get(i);
+        }
+
+        double[][] hull = convexHullOf(vertexX, vertexZ);
+        this.convexX = hull != null ? hull[0] : null;
+        this.convexZ = hull != null ? hull[1] : null;
+        if (hull != null) {
+            int count = convexX.length;
+            this.hullNormalX = new double[count];
+            this.hullNormalZ = new double[count];
+            this.hullOffset = new double[count];
+            for (int i = 0; i < count; i++) {
+                int next = (i + 1) % count;
+                double ex = convexX[next] - convexX[i];
+                double ez = convexZ[next] - convexZ[i];
+                double length = Math.sqrt(ex * ex + ez * ez);
+                hullNormalX[i] = -ez / length;
+                hullNormalZ[i] = ex / length;
+                hullOffset[i] = hullNormalX[i] * convexX[i] + hullNormalZ[i] * convexZ[i];
+            }
+        } else {
+            this.hullNormalX = null;
+            this.hullNormalZ = null;
+            this.hullOffset = null;
+        }
+    }
+
+    /**
+     * Compile a polygon from its stored vertices.
+     * @param points ordered polygon vertices
+     * @return the kernel, or null if there are fewer than three vertices
+     */
+    @Nullable
+    public static PolygonKernel compile(@NotNull List<Location> points) {
+        if (points.size() < 3) {
+            return null;
+        }
+        double[] xs = new double[points.size()];
+        double[] zs = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            PolygonGeometry.Point2D point = new PolygonGeometry.Point2D(points.get(i));
+            xs[i] = point.x;
+            zs[i] = point.z;
+        }
+        return new PolygonKernel(xs, zs);
+    }
+
+    /**
+     * Compile a polygon from vertices that are already in block-center form.
+     * @param xs vertex x coordinates
+     * @param zs vertex z coordinates
+     * @return the kernel, or null if there are fewer than three vertices
+     */
+    @Nullable
+    static PolygonKernel of(@NotNull double[] xs, @NotNull double[] zs) {
+        return xs.length < 3 ? null : new PolygonKernel(xs.clone(), zs.clone());
+    }
+
+    /**
+     * Ray-casting point-in-polygon test, equivalent to
+     * {@link PolygonGeometry#isPointInPolygon} on the same vertices.
+     * @param x the test x coordinate
+     * @param z the test z coordinate
+     * @return true if the point is inside
+     */
+    public boolean contains(double x, double z) {
+        if (convexX != null) {
+            int side = convexSide(x, z);
+            if (side >= 0) {
+                return side == 1;
+            }
+        }
+        
+        // Half-open slabs match the straddle rule (z1 > z) != (z2 > z)
+        int slab = findSlab(z);
+        if (slab < 0) {
+            return false;
+        }
+        int from = slabStart[slab];
+        int to = slabStart[slab + 1];
+        int crossings;
+        if (slabOrdered[slab]) {
+            // Count edges whose crossing lies to the right of x
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (x < crossingX(slabEdges[mid], z)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            crossings = to - low;
+        } else {
+            crossings = 0;
+            for (int i = from; i < to; i++) {
+                if (x < crossingX(slabEdges[i], z)) {
+                    crossings++;
+                }
+            }
+        }
+        return (crossings & 1) == 1;
+    }
+
+    /**
+     * Get every edge crossing of a row, sorted by x. A point on the row is inside
+     * when an odd number of crossings lie strictly to its right.
+     * @param z the row's z coordinate
+     * @return the crossing x coordinates
+     */
+    @NotNull
+    double[] crossings(double z) {
+        int slab = findSlab(z);
+        if (slab < 0) {
+            return new double[0];
+        }
+        int from = slabStart[slab];
+        double[] result = new double[slabStart[slab + 1] - from];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = crossingX(slabEdges[from + i], z);
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Check whether a point inside the polygon lies within a distance of its outline,
+     * i.e. outside the polygon inset by that distance. Convex outlines compare against
+     * their inset edge lines; other outlines compare squared distances to each edge.
+     * Neither needs a square root.
+     * @param x the test x coordinate
+     * @param z the test z coordinate
+     * @param distance the border thickness
+     * @return true if the point is in the border band
+     */
+    public boolean isNearBoundary(double x, double z, double distance) {
+        if (hullOffset != null) {
+            boolean tie = false;
+            for (int i = 0; i < hullOffset.length; i++) {
+                double signedDistance = hullNormalX[i] * x + hullNormalZ[i] * z - hullOffset[i];
+                double tolerance = (Math.abs(hullOffset[i]) + distance) * 1e-12;
+                if (signedDistance <= distance - tolerance) {
+                    return true;
+                }
+                tie |= signedDistance <= distance + tolerance;
+            }
+            if (!tie) {
+                return false;
+            }
+            // Within rounding of the inset line: settle it with the exact edge distances below
+        }
+        double limit = distance * distance;
+        for (int i = 0; i < edgeX.length; i++) {
+            double toStartX = x - edgeX[i];
+            double toStartZ = z - edgeZ[i];
+            double t = 0;
+            if (edgeLengthSquared[i] != 0) {
+                t = (toStartX * edgeDx[i] + toStartZ * edgeDz[i]) / edgeLengthSquared[i];
+                t = Math.max(0, Math.min(1, t));
+            }
+            double dx = toStartX - t * edgeDx[i];
+            double dz = toStartZ - t * edgeDz[i];
+            double distanceSquared = dx * dx + dz * dz;
+            // The square root only runs when the squared distance is a rounding error away from the limit
+            if (distanceSquared <= limit
+                || (distanceSquared <= limit * (1 + 1e-12) && Math.sqrt(distanceSquared) <= distance)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Distance from a point to the nearest polygon edge, equivalent to
+     * {@link PolygonGeometry#distanceToPolygonBoundary} on the same vertices.
+     * @param x the test x coordinate
+     * @param z the test z coordinate
+     * @return the distance to the boundary
+     */
+    public double distanceToBoundary(double x, double z) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < edgeX.length; i++) {
+            double toStartX = x - edgeX[i];
+            double toStartZ = z - edgeZ[i];
+            double t = 0;
+            if (edgeLengthSquared[i] != 0) {
+                t = (toStartX * edgeDx[i] + toStartZ * edgeDz[i]) / edgeLengthSquared[i];
+                t = Math.max(0, Math.min(1, t));
+            }
+            double dx = toStartX - t * edgeDx[i];
+            double dz = toStartZ - t * edgeDz[i];
+            double distanceSquared = dx * dx + dz * dz;
+            if (distanceSquared < best) {
+                best = distanceSquared;
+            }
+        }
+        return Math.sqrt(best);
+    }
+
+    /**
+     * Get the number of vertices.
+     * @return the vertex count
+     */
+    public int getVertexCount() {
+        return vertexX.length;
+    }
+
+    /**
+     * Check whether containment uses the convex fan search.
+     * @return true if the outline is strictly convex
+     */
+    public boolean isConvex() {
+        return convexX != null;
+    }
+
+    @NotNull double[] getVertexX() { return vertexX; }
+    @NotNull double[] getVertexZ() { return vertexZ; }
+
+    /**
+     * Get the x coordinate where an edge crosses a row, using the same formula
+     * as the list-based ray cast so boundary blocks classify identically.
+     */
+    private double crossingX(int edge, double z) {
+        return edgeDx[edge] * (z - edgeZ[edge]) / edgeDz[edge] + edgeX[edge];
+    }
+
+    private int findSlab(double z) {
+        if (slabZ.length < 2 || z < slabZ[0] || z >= slabZ[slabZ.length - 1]) {
+            return -1;
+        }
+        int low = 0;
+        int high = slabZ.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (slabZ[mid] <= z) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private boolean isOrdered(@NotNull List<Integer> slab, double z) {
+        for (int i = 1; i < slab.size(); i++) {
+            if (crossingX(slab.get(i - 1), z) > crossingX(slab.get(i), z)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Locate a point in the convex fan from vertex 0 with a binary search over the wedges.
+     * @return 1 if inside, 0 if outside, -1 if the point is too close to an edge or
+     *         diagonal to decide without the ray cast
+     */
+    private int convexSide(double x, double z) {
+        double[] xs = convexX;
+        double[] zs = convexZ;
+        int last = xs.length - 1;
+        double px = x - xs[0];
+        double pz = z - zs[0];
+
+        // Outside the angle spanned by the fan
+        double first = cross(xs[1] - xs[0], zs[1] - zs[0], px, pz);
+        double end = cross(xs[last] - xs[0], zs[last] - zs[0], px, pz);
+        if (isNearZero(first, xs[1] - xs[0], zs[1] - zs[0], px, pz)
+            || isNearZero(end, xs[last] - xs[0], zs[last] - zs[0], px, pz)) {
+            return -1;
+        }
+        if (first < 0 || end > 0) {
+            return 0;
+        }
+
+        // Last fan vertex the point is counter-clockwise of
+        int low = 1;
+        int high = last - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (cross(xs[mid] - xs[0], zs[mid] - zs[0], px, pz) >= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // Inside the wedge; the outer edge decides
+        double edgeX = xs[low + 1] - xs[low];
+        double edgeZ = zs[low + 1] - zs[low];
+        double toX = x - xs[low];
+        double toZ = z - zs[low];
+        double side = cross(edgeX, edgeZ, toX, toZ);
+        if (isNearZero(side, edgeX, edgeZ, toX, toZ)) {
+            return -1;
+        }
+        return side > 0 ? 1 : 0;
+    }
+
+    private static double cross(double ax, double az, double bx, double bz) {
+        return ax * bz - az * bx;
+    }
+
+    /**
+     * Treat a cross product as zero when it is within rounding of the operands,
+     * so boundary points are left to the ray cast and keep its edge rules.
+     */
+    private static boolean isNearZero(double cross, double ax, double az, double bx, double bz) {
+        double scale = (Math.abs(ax) + Math.abs(az)) * (Math.abs(bx) + Math.abs(bz));
+        return Math.abs(cross) <= scale * 1e-9;
+    }
+
+    /**
+     * Build the counter-clockwise vertex list used by the convex fast path.
+     * Repeated vertices are dropped; the outline must then be convex according to
+     * {@link PolygonGeometry#isConvexPolygon} and every fan triangle from the first
+     * vertex must turn strictly counter-clockwise, which also rules out star shapes
+     * and collinear runs.
+     * @return {xs, zs}, or null if the fast path does not apply
+     */
+    @Nullable
+    private static double[][] convexHullOf(@NotNull double[] vertexX, @NotNull double[] vertexZ) {
+        int n = vertexX.length;
+        double[] xs = new double[n];
+        double[] zs = new double[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (count > 0 && vertexX[i] == xs[count - 1] && vertexZ[i] == zs[count - 1]) {
+                continue;
+            }
+            xs[count] = vertexX[i];
+            zs[count] = vertexZ[i];
+            count++;
+        }
+        while (count > 1 && xs[count - 1] == xs[0] && zs[count - 1] == zs[0]) {
+            count--;
+        }
+        if (count < 3) {
+            return null;
+        }
+
+        List<PolygonGeometry.Point2D> outline = new ArrayList<>(count);
+        double signedArea = 0;
+        for (int i = 0; i < count; i++) {
+            outline.add(new PolygonGeometry.Point2D(xs[i], zs[i]));
+            int next = (i + 1) % count;
+            signedArea += xs[i] * zs[next] - xs[next] * zs[i];
+        }
+        if (signedArea == 0 || !PolygonGeometry.isConvexPolygon(outline)) {
+            return null;
+        }
+
+        xs = Arrays.copyOf(xs, count);
+        zs = Arrays.copyOf(zs, count);
+        if (signedArea < 0) {
+            // Keep vertex 0 as the fan origin and reverse the rest
+            for (int i = 1, j = count - 1; i < j; i++, j--) {
+                double swapX = xs[i];
+                xs[i] = xs[j];
+                xs[j] = swapX;
+                double swapZ = zs[i];
+                zs[i] = zs[j];
+                zs[j] = swapZ;
+            }
+        }
+
+        for (int i = 1; i < count - 1; i++) {
+            if (cross(xs[i] - xs[0], zs[i] - zs[0], xs[i + 1] - xs[0], zs[i + 1] - zs[0]) <= 0) {
+                return null;
+            }
+        }
+        return new double[][]{xs, zs};
+    }
+}
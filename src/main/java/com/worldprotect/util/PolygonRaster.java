@@ -0,0 +1,198 @@
+package com.worldprotect.util;
+
+import com.worldprotect.area.Area;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Per-column coverage bitmap for a polygon area.
+ *
+ * <p>Polygon containment is always evaluated at block centers, so whether a
+ * column belongs to the area is a fixed property of its block coordinates. This
+ * class evaluates every column once and stores the result as 256 bits per
+ * chunk, turning a containment check into a single bit test. BORDER style is
+ * folded into the bitmap as well, since its polygon distance is also taken at
+ * the block center. Instances are immutable once built.</p>
+ */
+public final class PolygonRaster {
+
+    private static final int WORDS_PER_CHUNK = 4;
+
+    /** Shared bitmap for chunks whose 256 columns are all covered. */
+    private static final long[] FULL = {-1L, -1L, -1L, -1L};
+
+    private final LongObjectMap<long[]> chunks;
+    private final int columnCount;
+
+    private PolygonRaster(@NotNull LongObjectMap<long[]> chunks, int columnCount) {
+        this.chunks = chunks;
+        this.columnCount = columnCount;
+    }
+
+    /**
+     * Rasterize a polygon area.
+     * @param kernel the area's compiled geometry
+     * @param style the area's style
+     * @param borderThickness the border thickness for BORDER style
+     * @return the raster, or null if the kernel has no usable polygon
+     */
+    @Nullable
+    public static PolygonRaster build(@NotNull ShapeKernel kernel, @NotNull Area.Style style, int borderThickness) {
+        PolygonKernel polygon = kernel.polygon;
+        if (polygon == null) {
+            return null;
+        }
+        int minBlockX = (int) Math.floor(kernel.minX);
+        int maxBlockX = (int) Math.floor(kernel.maxX);
+        int minBlockZ = (int) Math.floor(kernel.minZ);
+        int maxBlockZ = (int) Math.floor(kernel.maxZ);
+
+        LongObjectMap<long[]> chunks = new LongObjectMap<>();
+        int[] count = new int[1];
+        if (style == Area.Style.BORDER) {
+            rasterizeBorder(polygon, borderThickness, minBlockX, maxBlockX, minBlockZ, maxBlockZ, chunks, count);
+        } else {
+            rasterizeFill(polygon, minBlockX, maxBlockX, minBlockZ, maxBlockZ, chunks, count);
+        }
+
+        // Share one array for fully covered chunks
+        LongObjectMap<long[]> compacted = new LongObjectMap<>(chunks.size());
+        chunks.forEach((key, bits) -> compacted.put(key, isFull(bits) ? FULL : bits));
+        return new PolygonRaster(compacted, count[0]);
+    }
+
+    /**
+     * Check whether a column is covered.
+     * @param blockX the block x coordinate
+     * @param blockZ the block z coordinate
+     * @return true if the column is part of the area
+     */
+    public boolean contains(int blockX, int blockZ) {
+        long[] bits = chunks.get(LongObjectMap.key(blockX >> 4, blockZ >> 4));
+        if (bits == null) {
+            return false;
+        }
+        int bit = ((blockZ & 15) << 4) | (blockX & 15);
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Get the number of chunks with at least one covered column.
+     * @return the chunk count
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Get the number of covered columns.
+     * @return the column count
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Fill every column whose center is inside the polygon, one row at a time.
+     */
+    private static void rasterizeFill(@NotNull PolygonKernel polygon, int minBlockX, int maxBlockX,
+                                      int minBlockZ, int maxBlockZ,
+                                      @NotNull LongObjectMap<long[]> chunks, @NotNull int[] count) {
+        for (int blockZ = minBlockZ; blockZ <= maxBlockZ; blockZ++) {
+            double[] crossings = polygon.crossings(blockZ + 0.5);
+            if (crossings.length == 0) {
+                continue;
+            }
+            // Walk the sorted crossings alongside the columns; inside while an odd number lie to the right
+            int passed = 0;
+            for (int blockX = minBlockX; blockX <= maxBlockX; blockX++) {
+                double x = blockX + 0.5;
+                while (passed < crossings.length && !(x < crossings[passed])) {
+                    passed++;
+                }
+                if (((crossings.length - passed) & 1) == 1) {
+                    set(chunks, blockX, blockZ);
+                    count[0]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Mark every inside column whose center is within the border thickness of an edge.
+     * Only columns near each edge are visited.
+     */
+    private static void rasterizeBorder(@NotNull PolygonKernel polygon, int thickness, int minBlockX, int maxBlockX,
+                                        int minBlockZ, int maxBlockZ,
+                                        @NotNull LongObjectMap<long[]> chunks, @NotNull int[] count) {
+        double[] xs = polygon.getVertexX();
+        double[] zs = polygon.getVertexZ();
+        int n = xs.length;
+        for (int i = 0; i < n; i++) {
+            double x1 = xs[i], z1 = zs[i];
+            double x2 = xs[(i + 1) % n], z2 = zs[(i + 1) % n];
+            int fromZ = Math.max(minBlockZ, (int) Math.floor(Math.min(z1, z2) - thickness - 0.5));
+            int toZ = Math.min(maxBlockZ, (int) Math.ceil(Math.max(z1, z2) + thickness));
+            for (int blockZ = fromZ; blockZ <= toZ; blockZ++) {
+                double z = blockZ + 0.5;
+                // Part of the edge within the thickness in z; any nearby point is within the thickness of it in x
+                double low = 0;
+                double high = 1;
+                if (z2 != z1) {
+                    double a = (z - thickness - z1) / (z2 - z1);
+                    double b = (z + thickness - z1) / (z2 - z1);
+                    low = Math.max(0, Math.min(a, b));
+                    high = Math.min(1, Math.max(a, b));
+                } else if (Math.abs(z - z1) > thickness) {
+                    continue;
+                }
+                if (low > high) {
+                    continue;
+                }
+                double xa = x1 + low * (x2 - x1);
+                double xb = x1 + high * (x2 - x1);
+                int fromX = Math.max(minBlockX, (int) Math.floor(Math.min(xa, xb) - thickness - 0.5));
+                int toX = Math.min(maxBlockX, (int) Math.ceil(Math.max(xa, xb) + thickness));
+                for (int blockX = fromX; blockX <= toX; blockX++) {
+                    if (isSet(chunks, blockX, blockZ)) {
+                        continue;
+                    }
+                    double x = blockX + 0.5;
+                    if (polygon.contains(x, z) && polygon.isNearBoundary(x, z, thickness)) {
+                        set(chunks, blockX, blockZ);
+                        count[0]++;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void set(@NotNull LongObjectMap<long[]> chunks, int blockX, int blockZ) {
+        long key = LongObjectMap.key(blockX >> 4, blockZ >> 4);
+        long[] bits = chunks.get(key);
+        if (bits == null) {
+            bits = new long[WORDS_PER_CHUNK];
+            chunks.put(key, bits);
+        }
+        int bit = ((blockZ & 15) << 4) | (blockX & 15);
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private static boolean isSet(@NotNull LongObjectMap<long[]> chunks, int blockX, int blockZ) {
+        long[] bits = chunks.get(LongObjectMap.key(blockX >> 4, blockZ >> 4));
+        if (bits == null) {
+            return false;
+        }
+        int bit = ((blockZ & 15) << 4) | (blockX & 15);
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private static boolean isFull(@NotNull long[] bits) {
+        for (long word : bits) {
+            if (word != -1L) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,198 @@
+package com.worldprotect.util;
+
+import com.worldprotect.area.Area;
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Precompiled geometry for a single area.
+ *
+ * <p>Built once when an area is constructed so containment checks only do a few
+ * floating-point comparisons on primitive fields: no {@code Location} clones,
+ * no vectors and no per-call center or radius math. Instances are immutable.</p>
+ */
+public final class ShapeKernel {
+
+    private final String worldKey;
+    private final Area.Shape shape;
+
+    // Axis-aligned bounds
+    final double minX, minY, minZ;
+    final double maxX, maxY, maxZ;
+
+    // Circle and hexagon: center and inscribed radius
+    final double centerX, centerZ;
+    final double radius;
+    final double radiusSquared;
+
+    // Triangle hypotenuse as a half-plane: triA * x + triB * z <= triC
+    private final double triA, triB, triC;
+    private final boolean degenerate;
+
+    // Polygon outline, null for other shapes or polygons with fewer than three points
+    @Nullable
+    final PolygonKernel polygon;
+
+    // BORDER style: a point is in the border when it is in the shape but not in the
+    // shape inset by the thickness
+    private final boolean border;
+    private final double thickness;
+    private final double innerMinX, innerMinZ, innerMaxX, innerMaxZ;
+    private final double innerRadiusSquared;
+    private final double innerTriC;
+    private final double innerHexRadius, innerHexSlant;
+
+    /**
+     * Compile the kernel for an area's shape and bounds.
+     * @param worldName the area's world name
+     * @param shape the area's shape
+     * @param minX minimum x bound
+     * @param minY minimum y bound
+     * @param minZ minimum z bound
+     * @param maxX maximum x bound
+     * @param maxY maximum y bound
+     * @param maxZ maximum z bound
+     * @param polygonPoints polygon vertices (only used for POLYGON)
+     * @param style the area's style
+     * @param borderThickness the border thickness (only used for BORDER)
+     */
+    public ShapeKernel(@NotNull String worldName, @NotNull Area.Shape shape,
+                       double minX, double minY, double minZ,
+                       double maxX, double maxY, double maxZ,
+                       @NotNull List<Location> polygonPoints,
+                       @NotNull Area.Style style, int borderThickness) {
+        // Interned so the usual same-instance world name compares by reference
+        this.worldKey = worldName.intern();
+        this.shape = shape;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+
+        double width = Math.abs(maxX - minX);
+        double depth = Math.abs(maxZ - minZ);
+        this.centerX = (minX + maxX) / 2;
+        this.centerZ = (minZ + maxZ) / 2;
+        this.radius = Math.min(width, depth) / 2;
+        this.radiusSquared = radius * radius;
+
+        // Triangle corners are (minX, minZ), (maxX, minZ), (minX, maxZ); the bounds
+        // already cover the two axis-aligned legs, leaving only the hypotenuse
+        this.triA = depth;
+        this.triB = width;
+        this.triC = width * depth + depth * minX + width * minZ;
+        this.degenerate = width == 0 || depth == 0;
+
+        this.polygon = shape == Area.Shape.POLYGON ? PolygonKernel.compile(polygonPoints) : null;
+
+        this.border = style == Area.Style.BORDER;
+        this.thickness = borderThickness;
+        this.innerMinX = minX + thickness;
+        this.innerMinZ = minZ + thickness;
+        this.innerMaxX = maxX - thickness;
+        this.innerMaxZ = maxZ - thickness;
+        // Negative when the border swallows the whole circle
+        this.innerRadiusSquared = radius > thickness ? (radius - thickness) * (radius - thickness) : -1;
+        this.innerTriC = triC - thickness * Math.sqrt(triA * triA + triB * triB);
+        // Slanted hexagon edges |dz| + |dx| / 2 = r have normal length sqrt(5) / 2
+        this.innerHexRadius = radius - thickness;
+        this.innerHexSlant = radius - thickness * Math.sqrt(5) / 2;
+    }
+
+    /**
+     * Check whether a world name matches this kernel's world.
+     * @param worldName the world name
+     * @return true if it is the same world
+     */
+    public boolean isInWorld(@NotNull String worldName) {
+        return worldName == worldKey || worldName.equals(worldKey);
+    }
+
+    /**
+     * Check whether coordinates are inside the axis-aligned bounds.
+     */
+    public boolean isInBounds(double x, double y, double z) {
+        return x >= minX && x <= maxX
+            && y >= minY && y <= maxY
+            && z >= minZ && z <= maxZ;
+    }
+
+    /**
+     * Check whether a column lies inside the shape's outline.
+     * The caller must already have checked {@link #isInBounds}. Polygons with
+     * fewer than three points fall back to their bounds.
+     */
+    public boolean isInShape(double x, double z) {
+        switch (shape) {
+            case CIRCLE: {
+                double dx = x - centerX;
+                double dz = z - centerZ;
+                return dx * dx + dz * dz <= radiusSquared;
+            }
+            case TRIANGLE:
+                return !degenerate && triA * x + triB * z <= triC;
+            case HEXAGON: {
+                double dx = Math.abs(x - centerX);
+                double dz = Math.abs(z - centerZ);
+                // Flat-topped hexagon: |dx| <= r and |dz| <= r - |dx| / 2
+                return dx <= radius && dz + dx / 2 <= radius;
+            }
+            case POLYGON:
+                // Block centers so the boundary passes through the clicked blocks
+                return polygon == null || polygon.contains(Math.floor(x) + 0.5, Math.floor(z) + 0.5);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Check whether a point inside the shape lies in its border band, i.e. outside
+     * the shape inset by the border thickness. Always true for FULL style.
+     * The caller must already have checked {@link #isInShape}.
+     */
+    public boolean isInBorder(double x, double z) {
+        if (!border) {
+            return true;
+        }
+        switch (shape) {
+            case CIRCLE: {
+                double dx = x - centerX;
+                double dz = z - centerZ;
+                return dx * dx + dz * dz >= innerRadiusSquared;
+            }
+            case TRIANGLE:
+                return !(x > innerMinX && z > innerMinZ && triA * x + triB * z < innerTriC);
+            case HEXAGON: {
+                double dx = Math.abs(x - centerX);
+                double dz = Math.abs(z - centerZ);
+                return !(dx < innerHexRadius && dz + dx / 2 < innerHexSlant);
+            }
+            case POLYGON:
+                if (polygon != null) {
+                    return polygon.isNearBoundary(Math.floor(x) + 0.5, Math.floor(z) + 0.5, thickness);
+                }
+                // Not enough points for a valid polygon, treat it like its bounds
+                return isInBoxBorder(x, z);
+            default:
+                return isInBoxBorder(x, z);
+        }
+    }
+
+    private boolean isInBoxBorder(double x, double z) {
+        return !(x > innerMinX && x < innerMaxX && z > innerMinZ && z < innerMaxZ);
+    }
+
+    @NotNull public String getWorldKey() { return worldKey; }
+    @Nullable public PolygonKernel getPolygon() { return polygon; }
+    public double getMinX() { return minX; }
+    public double getMinY() { return minY; }
+    public double getMinZ() { return minZ; }
+    public double getMaxX() { return maxX; }
+    public double getMaxY() { return maxY; }
+    public double getMaxZ() { return maxZ; }
+}
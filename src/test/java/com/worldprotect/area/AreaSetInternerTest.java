@@ -0,0 +1,107 @@
+package com.worldprotect.area;
+
+import com.worldprotect.selection.Selection;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for AreaSetInterner lookups, batched publication and eviction.
+ */
+class AreaSetInternerTest {
+
+    private static final int AREAS = 40;
+
+    private World world;
+    private Area[] areas;
+    // Every single area and pair of areas, in resolution order
+    private List<Area[]> combinations;
+
+    @BeforeEach
+    void setUp() {
+        world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        areas = new Area[AREAS];
+        combinations = new ArrayList<>();
+        for (int i = 0; i < AREAS; i++) {
+            areas[i] = box("area" + i, i * 10);
+            combinations.add(new Area[]{areas[i]});
+        }
+        for (int i = 0; i < AREAS; i++) {
+            for (int j = i + 1; j < AREAS; j++) {
+                Area[] pair = {areas[i], areas[j]};
+                Arrays.sort(pair, Area.RESOLUTION_ORDER);
+                combinations.add(pair);
+            }
+        }
+    }
+
+    @Test
+    void testInternedSetsAreFoundBeforeAndAfterPublishing() {
+        AreaSetInterner interner = new AreaSetInterner(10_000, 16, "world", new Area[0]);
+        AreaSet[] interned = new AreaSet[combinations.size()];
+        // Enough combinations to publish several batches, with some left unpublished
+        for (int i = 0; i < interned.length; i++) {
+            Area[] hits = combinations.get(i);
+            assertNull(find(interner, i), "new combination " + i);
+            interned[i] = interner.intern(interner.create(hits));
+            assertSame(interned[i], find(interner, i), "a set should be found right after interning");
+            assertSame(interned[i], interner.intern(interner.create(hits)), "interning again should return the first set");
+        }
+        assertTrue(interned.length % AreaSetInterner.PUBLISH_BATCH != 0);
+        for (int i = 0; i < interned.length; i++) {
+            assertSame(interned[i], find(interner, i), "combination " + i);
+        }
+        assertEquals(interned.length, interner.size());
+        assertEquals(0, interner.getEvictions());
+    }
+
+    @Test
+    void testFullInternerEvictsAndStaysConsistent() {
+        int maxSize = 100;
+        AreaSetInterner interner = new AreaSetInterner(maxSize, 16, "world", new Area[0]);
+        AreaSet hot = interner.intern(interner.create(combinations.get(0)));
+        for (int i = 1; i < combinations.size(); i++) {
+            AreaSet set = interner.intern(interner.create(combinations.get(i)));
+            assertEquals(Arrays.asList(combinations.get(i)), set.getAreas(), "combination " + i);
+            // Looking a set up keeps it from being evicted, while the others are never looked up again
+            assertSame(hot, find(interner, 0), "the hot set should survive eviction");
+            assertTrue(interner.size() <= maxSize, "interner should stay within its maximum size");
+        }
+        assertEquals(combinations.size() - maxSize, interner.getEvictions());
+        assertNotNull(find(interner, combinations.size() - 1), "the newest set should be interned");
+        for (int i = 0; i < combinations.size(); i++) {
+            AreaSet set = find(interner, i);
+            assertTrue(set == null || set.getAreas().equals(Arrays.asList(combinations.get(i))), "combination " + i);
+        }
+
+        // Removing an area drops its sets from lookups at once
+        interner.removeContaining(areas[0]);
+        assertNull(find(interner, 0), "sets with a removed area should be dropped");
+        for (int i = 0; i < combinations.size(); i++) {
+            AreaSet set = find(interner, i);
+            assertTrue(set == null || !set.contains(areas[0]), "combination " + i + " should be dropped");
+        }
+    }
+
+    private AreaSet find(AreaSetInterner interner, int combination) {
+        Area[] hits = combinations.get(combination);
+        return interner.find(hits, hits.length, interner.create(hits).hashCode());
+    }
+
+    private Area box(String name, int minX) {
+        Selection selection = new Selection(name, UUID.randomUUID(), world, Selection.SelectionType.POINT_BASED);
+        selection.addPoint(new Location(world, minX, -64, 0));
+        selection.addPoint(new Location(world, minX + 5, 320, 5));
+        return new Area(name, selection, 1, Area.Shape.SQUARE, Area.Style.FULL, 1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.worldprotect.area;
+
+import com.worldprotect.flags.Flag;
+import com.worldprotect.flags.FlagResolver;
+import com.worldprotect.flags.GroupFlag;
+import com.worldprotect.selection.Selection;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for AreaSet subject groups and flag resolution.
+ */
+class AreaSetTest {
+
+    private static final String WORLD = "world";
+
+    private MockedStatic<Bukkit> bukkit;
+    private World world;
+
+    @BeforeEach
+    void setUp() {
+        // Fallback regions look up their world through Bukkit
+        bukkit = mockStatic(Bukkit.class);
+        world = mock(World.class);
+        when(world.getName()).thenReturn(WORLD);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bukkit.close();
+    }
+
+    @Test
+    void testWorldRegionMemberIsNonmemberInClaim() {
+        UUID regionMember = UUID.randomUUID();
+        Area worldRegion = new Area(Area.Scope.WORLD, WORLD);
+        worldRegion.addMember(regionMember);
+        Area[] fallbacks = {worldRegion};
+
+        // Only members of the claim may break blocks in it
+        Area claim = box("plot", 10, 0, 0, 15, 15);
+        claim.setFlagValue(Flag.BLOCK_BREAK, FlagResolver.SubjectGroup.MEMBER, true);
+        claim.setFlagValue(Flag.BLOCK_BREAK, FlagResolver.SubjectGroup.NONMEMBER, false);
+
+        AreaSet inClaim = new AreaSet(new Area[]{claim}, fallbacks, WORLD, 16);
+        AreaSet unclaimed = new AreaSet(new Area[0], fallbacks, WORLD, 16);
+        Player player = player(regionMember);
+
+        assertEquals(FlagResolver.SubjectGroup.NONMEMBER, inClaim.getSubjectGroup(player),
+            "World region membership should not apply inside a claim");
+        assertFalse(inClaim.isAllowed(Flag.BLOCK_BREAK, player),
+            "World region member should not get the claim's member flags");
+        assertFalse(FlagResolver.getEffectiveFlagValue(inClaim.getResolutionOrder(), Flag.BLOCK_BREAK, player),
+            "List-based resolution should agree with the set");
+        assertEquals(FlagResolver.SubjectGroup.MEMBER, unclaimed.getSubjectGroup(player),
+            "World region membership should apply outside claims");
+
+        // Becoming a member of the claim itself takes effect despite the cached group
+        claim.addMember(regionMember);
+        assertEquals(FlagResolver.SubjectGroup.MEMBER, inClaim.getSubjectGroup(player));
+        assertTrue(inClaim.isAllowed(Flag.BLOCK_BREAK, player));
+    }
+
+    @Test
+    void testHigherPriorityGroupFlagBeatsLowerAtomicFlag() {
+        Area globalRegion = new Area(Area.Scope.GLOBAL, null);
+        globalRegion.setFlag(Flag.BLOCK_BREAK, true);
+        Area town = box("town", 20, 0, 0, 63, 63);
+        town.setFlag(Flag.BLOCK_BREAK, true);
+        Area plot = box("plot", 10, 0, 0, 15, 15);
+        plot.setGroupFlagValue(GroupFlag.BUILD_ALL, FlagResolver.SubjectGroup.NONMEMBER, false);
+
+        AreaSet set = new AreaSet(new Area[]{plot, town}, new Area[]{globalRegion}, WORLD, 16);
+        FlagResolver.SubjectGroup nonmember = FlagResolver.SubjectGroup.NONMEMBER;
+        assertFalse(set.isAllowed(Flag.BLOCK_BREAK, nonmember),
+            "The plot's build-all deny should beat the town's block-break allow");
+        assertFalse(FlagResolver.getEffectiveFlagValue(set.getResolutionOrder(), Flag.BLOCK_BREAK, nonmember),
+            "List-based resolution should agree with the set");
+
+        // An explicit value in the same area still beats its group flag
+        plot.setFlagValue(Flag.BLOCK_BREAK, nonmember, true);
+        assertTrue(set.isAllowed(Flag.BLOCK_BREAK, nonmember));
+        assertFalse(set.isAllowed(Flag.BLOCK_PLACE, nonmember));
+
+        // Without the plot, the town decides before the global region
+        AreaSet townOnly = new AreaSet(new Area[]{town}, new Area[]{globalRegion}, WORLD, 16);
+        town.setGroupFlagValue(GroupFlag.BUILD_ALL, nonmember, false);
+        globalRegion.setFlag(Flag.BLOCK_PLACE, true);
+        assertFalse(townOnly.isAllowed(Flag.BLOCK_PLACE, nonmember),
+            "A global atomic value should not beat a claim's group flag");
+    }
+
+    @Test
+    void testFullSubjectCacheEvictsOneEntryAtATime() {
+        Area claim = box("plot", 10, 0, 0, 15, 15);
+        UUID ownerId = claim.getOwners().iterator().next();
+        Player owner = player(ownerId);
+        AreaSet set = new AreaSet(new Area[]{claim}, new Area[0], WORLD, 8);
+
+        for (int i = 0; i < 100; i++) {
+            UUID visitorId = UUID.randomUUID();
+            if (i % 3 == 0) {
+                claim.addMember(visitorId);
+            }
+            FlagResolver.SubjectGroup expected = i % 3 == 0
+                ? FlagResolver.SubjectGroup.MEMBER : FlagResolver.SubjectGroup.NONMEMBER;
+            assertEquals(expected, set.getSubjectGroup(player(visitorId)), "visitor " + i);
+            assertEquals(FlagResolver.SubjectGroup.OWNER, set.getSubjectGroup(owner));
+            assertTrue(set.getCachedSubjectCount() <= 8, "cache should stay within its maximum size");
+        }
+        // Evicting one entry at a time keeps the cache full instead of emptying it
+        assertEquals(8, set.getCachedSubjectCount());
+    }
+
+    private Area box(String name, int priority, double minX, double minZ, double maxX, double maxZ) {
+        Selection selection = new Selection(name, UUID.randomUUID(), world, Selection.SelectionType.POINT_BASED);
+        selection.addPoint(new Location(world, minX, -64, minZ));
+        selection.addPoint(new Location(world, maxX, 320, maxZ));
+        return new Area(name, selection, priority, Area.Shape.SQUARE, Area.Style.FULL, 1);
+    }
+
+    private static Player player(UUID playerId) {
+        Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(playerId);
+        return player;
+    }
+}
@@ -0,0 +1,166 @@
+package com.worldprotect.area;
+
+import com.worldprotect.selection.Selection;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for ChunkClassifier.
+ *
+ * <p>Checks classifications of random shapes and styles against the blocks
+ * of the chunk: an empty chunk has no block in any area, and a uniform chunk
+ * has every block in the same areas.</p>
+ */
+class ChunkClassifierTest {
+
+    private static final int MIN_Y = -64;
+    private static final int MAX_Y = 319;
+
+    private World world;
+    private int nextId;
+
+    @BeforeEach
+    void setUp() {
+        world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+    }
+
+    @Test
+    void testCoveringAreas() {
+        assertEquals(ChunkCoverage.EMPTY, classify(), "no candidates");
+        assertEquals(ChunkCoverage.EMPTY, classify(square(Area.Style.FULL, 100, MIN_Y, 100, 200, MAX_Y, 200)),
+            "an area outside the chunk");
+
+        assertEquals(ChunkCoverage.UNIFORM, classify(square(Area.Style.FULL, -10, MIN_Y, -10, 30, MAX_Y, 30)));
+        assertEquals(ChunkCoverage.UNIFORM, classify(square(Area.Style.FULL, -1, MIN_Y, -1, 16, MAX_Y, 16)),
+            "an area one block past the chunk");
+        assertEquals(ChunkCoverage.UNIFORM, classify(shaped(Area.Shape.CIRCLE, Area.Style.FULL, -40, MIN_Y, -40, 56, MAX_Y, 56)));
+        assertEquals(ChunkCoverage.UNIFORM, classify(
+            square(Area.Style.FULL, -10, MIN_Y, -10, 30, MAX_Y, 30),
+            square(Area.Style.FULL, -50, MIN_Y, -50, 50, MAX_Y, 50)), "nested areas covering the chunk");
+        assertEquals(ChunkCoverage.UNIFORM, classify(polygon(MIN_Y, MAX_Y, -20, -20, 36, -20, 36, 36, -20, 36)));
+
+        assertEquals(ChunkCoverage.MIXED, classify(square(Area.Style.FULL, 4, MIN_Y, 4, 30, MAX_Y, 30)),
+            "an area covering part of the chunk");
+        assertEquals(ChunkCoverage.MIXED, classify(square(Area.Style.BORDER, -10, MIN_Y, -10, 30, MAX_Y, 30)),
+            "a border around the chunk");
+        assertEquals(ChunkCoverage.MIXED, classify(square(Area.Style.FULL, -10, 0, -10, 30, 100, 30)),
+            "an area covering part of the height");
+        assertEquals(ChunkCoverage.UNIFORM,
+            ChunkClassifier.classify(new Area[]{square(Area.Style.FULL, -10, 0, -10, 30, 100, 30)}, 0, 0, 0, 100),
+            "an area covering the part's height");
+    }
+
+    @Test
+    void testClassifyMatchesSampledBlocks() {
+        Random random = new Random(21);
+        int[] counts = new int[ChunkCoverage.values().length];
+        for (int trial = 0; trial < 2000; trial++) {
+            int minX = (random.nextInt(9) - 4) << 4;
+            int minZ = (random.nextInt(9) - 4) << 4;
+            Area[] candidates = new Area[random.nextInt(4)];
+            for (int i = 0; i < candidates.length; i++) {
+                candidates[i] = randomArea(random, minX, minZ);
+            }
+            int minY = random.nextBoolean() ? MIN_Y : random.nextInt(100);
+            int maxY = random.nextBoolean() ? MAX_Y : minY + random.nextInt(100);
+
+            ChunkCoverage coverage = ChunkClassifier.classify(candidates, minX, minZ, minY, maxY);
+            counts[coverage.ordinal()]++;
+            if (coverage == ChunkCoverage.MIXED) {
+                continue;
+            }
+            // Blocks of the part, sampled at their centers and, for convex shapes, near their edges
+            for (Area area : candidates) {
+                double[] offsets = area.getShape() == Area.Shape.POLYGON
+                    ? new double[]{0.5} : new double[]{0.01, 0.5, 0.99};
+                boolean expected = coverage == ChunkCoverage.UNIFORM
+                    && area.contains(minX + 0.5, minY + 0.5, minZ + 0.5);
+                for (double y : new double[]{minY, minY + 0.5, (minY + maxY) / 2.0, maxY}) {
+                    for (int dx = 0; dx < 16; dx++) {
+                        for (int dz = 0; dz < 16; dz++) {
+                            for (double offset : offsets) {
+                                double x = minX + dx + offset;
+                                double z = minZ + dz + offset;
+                                assertEquals(expected, area.contains(x, y, z),
+                                    coverage + " chunk at " + minX + ", " + minZ + " disagrees with "
+                                        + area.getShape() + " " + area.getStyle() + " at " + x + ", " + y + ", " + z);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        for (ChunkCoverage coverage : ChunkCoverage.values()) {
+            assertTrue(counts[coverage.ordinal()] > 50, "too few " + coverage + " chunks to be meaningful");
+        }
+    }
+
+    private static ChunkCoverage classify(Area... candidates) {
+        return ChunkClassifier.classify(candidates, 0, 0, MIN_Y, MAX_Y);
+    }
+
+    private Area randomArea(Random random, int chunkMinX, int chunkMinZ) {
+        // Around the chunk, from plots inside it to regions well past it
+        int size = 4 + random.nextInt(random.nextBoolean() ? 24 : 120);
+        int minX = chunkMinX + 8 - random.nextInt(size + 16);
+        int minZ = chunkMinZ + 8 - random.nextInt(size + 16);
+        int minY = random.nextInt(4) == 0 ? random.nextInt(80) : MIN_Y;
+        int maxY = random.nextInt(4) == 0 ? minY + random.nextInt(80) : MAX_Y;
+        Area.Style style = random.nextInt(4) == 0 ? Area.Style.BORDER : Area.Style.FULL;
+        return switch (random.nextInt(3)) {
+            case 0 -> shaped(Area.Shape.SQUARE, style, minX, minY, minZ, minX + size, maxY, minZ + size);
+            case 1 -> shaped(Area.Shape.CIRCLE, style, minX, minY, minZ, minX + size, maxY, minZ + size);
+            default -> {
+                // Star-shaped outline, often concave
+                int vertices = 3 + random.nextInt(8);
+                int[] xz = new int[vertices * 2];
+                double radius = size / 2.0;
+                for (int i = 0; i < vertices; i++) {
+                    double angle = 2 * Math.PI * i / vertices;
+                    double r = radius * (0.5 + random.nextDouble() / 2);
+                    xz[2 * i] = minX + (int) Math.round(radius + r * Math.cos(angle));
+                    xz[2 * i + 1] = minZ + (int) Math.round(radius + r * Math.sin(angle));
+                }
+                yield polygon(minY, maxY, xz);
+            }
+        };
+    }
+
+    private Area square(Area.Style style, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return shaped(Area.Shape.SQUARE, style, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    private Area shaped(Area.Shape shape, Area.Style style, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        Selection selection = selection();
+        selection.addPoint(new Location(world, minX, minY, minZ));
+        selection.addPoint(new Location(world, maxX, maxY, maxZ));
+        return new Area(selection.getName(), selection, 1, shape, style, 2);
+    }
+
+    /**
+     * @param xz the outline as alternating x and z coordinates
+     */
+    private Area polygon(int minY, int maxY, int... xz) {
+        Selection selection = selection();
+        for (int i = 0; i < xz.length; i += 2) {
+            selection.addPoint(new Location(world, xz[i], i == 2 ? maxY : minY, xz[i + 1]));
+        }
+        return new Area(selection.getName(), selection, 1, Area.Shape.POLYGON, Area.Style.FULL, 2);
+    }
+
+    private Selection selection() {
+        String name = "area" + nextId++;
+        return new Selection(name, UUID.randomUUID(), world, Selection.SelectionType.POINT_BASED);
+    }
+}
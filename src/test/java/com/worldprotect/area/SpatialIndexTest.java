@@ -0,0 +1,202 @@
+package com.worldprotect.area;
+
+import com.worldprotect.selection.Selection;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests both spatial indexes against a brute-force scan over random insert,
+ * bulk insert and remove sequences.
+ */
+class SpatialIndexTest {
+
+    private World world;
+    private int nextId;
+
+    @BeforeEach
+    void setUp() {
+        world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+    }
+
+    @Test
+    void testGridMatchesBruteForce() {
+        runRandomSequence(new GridSpatialIndex(4), 1);
+    }
+
+    @Test
+    void testRTreeMatchesBruteForce() {
+        RTreeSpatialIndex index = new RTreeSpatialIndex();
+        List<Area> indexed = runRandomSequence(index, 2);
+
+        // Removing everything condenses the tree back to a single empty leaf
+        for (Area area : indexed) {
+            assertTrue(index.remove(area), "indexed area should be removable");
+        }
+        assertEquals(0, index.size());
+        assertEquals(1, index.getHeight());
+        assertEquals(0, index.query(0, 0).length);
+        assertFalse(index.intersectsChunk(0, 0));
+    }
+
+    @Test
+    void testRTreeBulkLoadAndShrink() {
+        RTreeSpatialIndex index = new RTreeSpatialIndex();
+        Random random = new Random(3);
+        List<Area> indexed = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            indexed.add(randomArea(random));
+        }
+        // Loading into an empty tree packs it with STR
+        index.insertAll(indexed);
+        assertTrue(index.getHeight() >= 3, "2000 areas should need at least three levels");
+        verify(index, indexed, random);
+
+        // Removing most areas drains nodes below the minimum and shortens the tree
+        int height = index.getHeight();
+        while (indexed.size() > 20) {
+            assertTrue(index.remove(indexed.remove(random.nextInt(indexed.size()))));
+        }
+        assertTrue(index.getHeight() < height, "tree should shrink after removing most areas");
+        verify(index, indexed, random);
+    }
+
+    @Test
+    void testRTreeSingleHitsDoNotAllocate() {
+        RTreeSpatialIndex index = new RTreeSpatialIndex();
+        Area area = box(1, 0, 0, 31, 31);
+        index.insert(area);
+        index.insert(box(1, 100, 100, 131, 131));
+        index.insert(box(2, 110, 110, 120, 120));
+
+        assertSame(index.query(5, 5), index.query(6, 6), "single hits should return a cached array");
+        assertSame(index.queryChunk(0, 0), index.queryChunk(1, 1));
+        assertSame(index.query(500, 500), index.query(-500, -500), "misses should return a shared array");
+        assertSame(index.query(115, 115), index.query(116, 116), "repeated overlaps should reuse their result");
+    }
+
+    /**
+     * Apply random inserts, bulk inserts and removes, checking every lookup
+     * after each step.
+     * @return the areas left in the index
+     */
+    private List<Area> runRandomSequence(SpatialIndex index, long seed) {
+        Random random = new Random(seed);
+        List<Area> indexed = new ArrayList<>();
+        for (int step = 0; step < 300; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                Area area = randomArea(random);
+                index.insert(area);
+                indexed.add(area);
+            } else if (operation < 7) {
+                // Batches both larger and smaller than the index, so the R-tree repacks and inserts
+                List<Area> batch = new ArrayList<>();
+                int count = random.nextBoolean() || indexed.size() > 400
+                    ? 1 + random.nextInt(5)
+                    : indexed.size() + 1 + random.nextInt(20);
+                for (int i = 0; i < count; i++) {
+                    batch.add(randomArea(random));
+                }
+                index.insertAll(batch);
+                indexed.addAll(batch);
+            } else if (!indexed.isEmpty()) {
+                Area area = indexed.remove(random.nextInt(indexed.size()));
+                assertTrue(index.remove(area), "indexed area should be removable");
+                assertFalse(index.remove(area), "removed area should not be found again");
+            }
+            assertEquals(indexed.size(), index.size(), "size after step " + step);
+            if (step % 10 == 0) {
+                verify(index, indexed, random);
+            }
+        }
+        verify(index, indexed, random);
+        return indexed;
+    }
+
+    private void verify(SpatialIndex index, List<Area> indexed, Random random) {
+        boolean exact = index instanceof RTreeSpatialIndex;
+        for (int i = 0; i < 300; i++) {
+            double x;
+            double z;
+            if (i % 3 == 0 && !indexed.isEmpty()) {
+                // Exact bounds, where inclusive and exclusive checks differ
+                Area area = indexed.get(random.nextInt(indexed.size()));
+                x = random.nextBoolean() ? area.getMinX() : area.getMaxX();
+                z = random.nextBoolean() ? area.getMinZ() : area.getMaxZ();
+            } else {
+                x = random.nextInt(5000) - 2500 + 0.5;
+                z = random.nextInt(5000) - 2500 + 0.5;
+            }
+            Area[] expected = indexed.stream()
+                .filter(area -> area.getMinX() <= x && x <= area.getMaxX() && area.getMinZ() <= z && z <= area.getMaxZ())
+                .sorted(Area.RESOLUTION_ORDER)
+                .toArray(Area[]::new);
+            Area[] actual = index.query(x, z);
+            assertOrdered(actual, indexed);
+            Area[] filtered = exact ? actual : Arrays.stream(actual)
+                .filter(area -> area.getMinX() <= x && x <= area.getMaxX() && area.getMinZ() <= z && z <= area.getMaxZ())
+                .toArray(Area[]::new);
+            assertArrayEquals(expected, filtered, "query at " + x + ", " + z);
+
+            int chunkX = (int) Math.floor(x) >> 4;
+            int chunkZ = (int) Math.floor(z) >> 4;
+            Area[] expectedChunk = indexed.stream()
+                .filter(area -> overlapsChunk(area, chunkX, chunkZ))
+                .sorted(Area.RESOLUTION_ORDER)
+                .toArray(Area[]::new);
+            Area[] actualChunk = index.queryChunk(chunkX, chunkZ);
+            assertOrdered(actualChunk, indexed);
+            Area[] filteredChunk = exact ? actualChunk : Arrays.stream(actualChunk)
+                .filter(area -> overlapsChunk(area, chunkX, chunkZ))
+                .toArray(Area[]::new);
+            assertArrayEquals(expectedChunk, filteredChunk, "queryChunk at " + chunkX + ", " + chunkZ);
+            assertEquals(expectedChunk.length > 0, index.intersectsChunk(chunkX, chunkZ),
+                "intersectsChunk at " + chunkX + ", " + chunkZ);
+        }
+    }
+
+    private static void assertOrdered(Area[] result, List<Area> indexed) {
+        for (int i = 0; i < result.length; i++) {
+            assertTrue(indexed.contains(result[i]), result[i].getName() + " is not indexed");
+            if (i > 0) {
+                assertTrue(Area.RESOLUTION_ORDER.compare(result[i - 1], result[i]) < 0,
+                    "results should be in resolution order");
+            }
+        }
+    }
+
+    private static boolean overlapsChunk(Area area, int chunkX, int chunkZ) {
+        int minX = chunkX << 4;
+        int minZ = chunkZ << 4;
+        return area.getMaxX() >= minX && area.getMinX() < minX + 16
+            && area.getMaxZ() >= minZ && area.getMinZ() < minZ + 16;
+    }
+
+    private Area randomArea(Random random) {
+        // Mostly plots, some large regions, with few priorities so names break ties
+        int size = random.nextInt(10) == 0 ? 200 + random.nextInt(800) : 1 + random.nextInt(60);
+        int minX = random.nextInt(4000) - 2000;
+        int minZ = random.nextInt(4000) - 2000;
+        return box(1 + random.nextInt(4), minX, minZ, minX + size, minZ + random.nextInt(size + 1));
+    }
+
+    private Area box(int priority, int minX, int minZ, int maxX, int maxZ) {
+        String name = "area" + nextId++;
+        Selection selection = new Selection(name, UUID.randomUUID(), world, Selection.SelectionType.POINT_BASED);
+        selection.addPoint(new Location(world, minX, -64, minZ));
+        selection.addPoint(new Location(world, maxX, 320, maxZ));
+        return new Area(name, selection, priority, Area.Shape.SQUARE, Area.Style.FULL, 1);
+    }
+}
@@ -0,0 +1,73 @@
+package com.worldprotect.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for LongLruMap against an access-ordered {@link LinkedHashMap} reference.
+ */
+class LongLruMapTest {
+
+    @Test
+    void testRandomOperationsMatchLinkedHashMap() {
+        for (int maxSize : new int[]{1, 7, 100, 1000}) {
+            LongLruMap<String> map = new LongLruMap<>(maxSize);
+            Map<Long, String> reference = lruMap(maxSize);
+            Random random = new Random(maxSize);
+
+            for (int step = 0; step < 50_000; step++) {
+                // Keys from a range a few times the maximum size, so entries are hit, evicted and reused
+                long key = random.nextInt(maxSize * 3 + 1) * 0x10000L - random.nextInt(3);
+                int operation = random.nextInt(10);
+                if (operation < 4) {
+                    assertEquals(reference.get(key), map.get(key), "get " + key + " at size " + maxSize);
+                } else if (operation < 8) {
+                    String value = "v" + step;
+                    reference.put(key, value);
+                    map.put(key, value);
+                } else if (operation < 9) {
+                    assertEquals(reference.remove(key), map.remove(key), "remove " + key);
+                } else if (random.nextInt(500) == 0) {
+                    reference.clear();
+                    map.clear();
+                }
+                assertEquals(reference.size(), map.size(), "size after step " + step);
+            }
+
+            // Both maps should have kept the same entries
+            for (Map.Entry<Long, String> entry : Map.copyOf(reference).entrySet()) {
+                assertEquals(entry.getValue(), map.get(entry.getKey()), "get " + entry.getKey());
+            }
+        }
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        LongLruMap<String> map = new LongLruMap<>(3);
+        map.put(1, "a");
+        map.put(2, "b");
+        map.put(3, "c");
+        assertEquals("a", map.get(1), "reading marks an entry as used");
+        map.put(4, "d");
+
+        assertNull(map.get(2), "the least recently used entry should be evicted");
+        assertEquals("a", map.get(1));
+        assertEquals("c", map.get(3));
+        assertEquals("d", map.get(4));
+        assertEquals(3, map.size());
+    }
+
+    private static Map<Long, String> lruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+}
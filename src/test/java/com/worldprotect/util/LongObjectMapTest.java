@@ -0,0 +1,76 @@
+package com.worldprotect.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for LongObjectMap against a {@link HashMap} reference.
+ */
+class LongObjectMapTest {
+
+    @Test
+    void testRandomOperationsMatchHashMap() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> reference = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int step = 0; step < 50_000; step++) {
+            // A small key range forces collisions, removals inside probe runs and resizes
+            long key = LongObjectMap.key(random.nextInt(200) - 100, random.nextInt(200) - 100);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key), map.remove(key), "remove " + key);
+            } else {
+                String value = "v" + step;
+                assertEquals(reference.put(key, value), map.put(key, value), "put " + key);
+            }
+            assertEquals(reference.size(), map.size(), "size after step " + step);
+        }
+
+        for (Map.Entry<Long, String> entry : reference.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()), "get " + entry.getKey());
+        }
+        Map<Long, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(reference, visited, "forEach should visit every entry once");
+    }
+
+    @Test
+    void testKeysKeepSignedCoordinatesApart() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        int[] coordinates = {0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int x : coordinates) {
+            for (int z : coordinates) {
+                assertNull(map.put(LongObjectMap.key(x, z), x + "," + z), "key collision at " + x + "," + z);
+            }
+        }
+        for (int x : coordinates) {
+            for (int z : coordinates) {
+                assertEquals(x + "," + z, map.get(LongObjectMap.key(x, z)));
+            }
+        }
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "v" + i);
+        }
+        LongObjectMap<String> copy = map.copy();
+        copy.remove(5);
+        copy.put(500, "new");
+        map.put(6, "changed");
+
+        assertEquals("v5", map.get(5));
+        assertNull(map.get(500));
+        assertNull(copy.get(5));
+        assertEquals("v6", copy.get(6));
+        assertEquals(100, map.size());
+        assertEquals(100, copy.size());
+    }
+}
@@ -0,0 +1,168 @@
+package com.worldprotect.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for PolygonKernel.
+ *
+ * <p>Checks that the convex fan search agrees with the ray cast in
+ * {@link PolygonGeometry#isPointInPolygon} for small, medium and free-draw
+ * sized polygons. The speed comparison is tagged {@code benchmark} and only
+ * runs with {@code ./gradlew benchmark}.</p>
+ */
+class PolygonKernelTest {
+
+    private static final int[] VERTEX_COUNTS = {8, 64, 360};
+    private static final double RADIUS = 200.5;
+
+    @Test
+    void testConvexDetection() {
+        for (int vertices : VERTEX_COUNTS) {
+            assertTrue(regularPolygon(vertices).isConvex(), vertices + "-gon should use the convex path");
+        }
+
+        // Arrow shape: one reflex vertex
+        PolygonKernel concave = PolygonKernel.of(
+            new double[]{0.5, 20.5, 10.5, 20.5, 0.5},
+            new double[]{0.5, 0.5, 10.5, 20.5, 20.5});
+        assertNotNull(concave);
+        assertFalse(concave.isConvex(), "Concave polygon should not use the convex path");
+
+        // Pentagram: every turn has the same sign but the outline winds twice
+        double[] starX = new double[5];
+        double[] starZ = new double[5];
+        for (int i = 0; i < 5; i++) {
+            double angle = 2 * Math.PI * (i * 2 % 5) / 5;
+            starX[i] = 50 * Math.cos(angle);
+            starZ[i] = 50 * Math.sin(angle);
+        }
+        PolygonKernel star = PolygonKernel.of(starX, starZ);
+        assertNotNull(star);
+        assertFalse(star.isConvex(), "Self-intersecting star should not use the convex path");
+    }
+
+    @Test
+    void testConvexMatchesRayCast() {
+        for (int vertices : VERTEX_COUNTS) {
+            PolygonKernel kernel = regularPolygon(vertices);
+            List<PolygonGeometry.Point2D> outline = regularOutline(vertices);
+
+            for (int x = -210; x <= 210; x += 3) {
+                for (int z = -210; z <= 210; z += 3) {
+                    double testX = x + 0.5;
+                    double testZ = z + 0.5;
+                    boolean expected = PolygonGeometry.isPointInPolygon(
+                        new PolygonGeometry.Point2D(testX, testZ), outline);
+                    assertEquals(expected, kernel.contains(testX, testZ),
+                        vertices + "-gon disagrees at (" + testX + ", " + testZ + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRandomSamplesMatchRayCast() {
+        double[][] samples = randomSamples(20_000);
+        for (int vertices : VERTEX_COUNTS) {
+            PolygonKernel kernel = regularPolygon(vertices);
+            List<PolygonGeometry.Point2D> outline = regularOutline(vertices);
+            for (int i = 0; i < samples[0].length; i++) {
+                double testX = samples[0][i];
+                double testZ = samples[1][i];
+                boolean expected = PolygonGeometry.isPointInPolygon(
+                    new PolygonGeometry.Point2D(testX, testZ), outline);
+                assertEquals(expected, kernel.contains(testX, testZ),
+                    vertices + "-gon disagrees at (" + testX + ", " + testZ + ")");
+            }
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkConvexFanAgainstRayCast(TestReporter reporter) {
+        double[][] samples = randomSamples(200_000);
+        double[] testX = samples[0];
+        double[] testZ = samples[1];
+
+        for (int vertices : VERTEX_COUNTS) {
+            PolygonKernel kernel = regularPolygon(vertices);
+            List<PolygonGeometry.Point2D> outline = regularOutline(vertices);
+
+            // Warm up both paths before timing
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < testX.length; i++) {
+                    PolygonGeometry.isPointInPolygon(new PolygonGeometry.Point2D(testX[i], testZ[i]), outline);
+                    kernel.contains(testX[i], testZ[i]);
+                }
+            }
+
+            // Count hits so the timed loops can't be optimized away
+            int rayCastHits = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < testX.length; i++) {
+                if (PolygonGeometry.isPointInPolygon(new PolygonGeometry.Point2D(testX[i], testZ[i]), outline)) {
+                    rayCastHits++;
+                }
+            }
+            long rayCastNanos = System.nanoTime() - start;
+
+            int fanHits = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < testX.length; i++) {
+                if (kernel.contains(testX[i], testZ[i])) {
+                    fanHits++;
+                }
+            }
+            long fanNanos = System.nanoTime() - start;
+
+            assertEquals(rayCastHits, fanHits, vertices + "-gon hit counts differ");
+            reporter.publishEntry(vertices + " vertices", String.format("isPointInPolygon %.1f ns/op, convex fan %.1f ns/op",
+                (double) rayCastNanos / testX.length, (double) fanNanos / testX.length));
+        }
+    }
+
+    /**
+     * Get random block-center sample points around the test polygons.
+     * @return {x values, z values}
+     */
+    private static double[][] randomSamples(int count) {
+        double[] testX = new double[count];
+        double[] testZ = new double[count];
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            testX[i] = Math.floor((random.nextDouble() * 2 - 1) * RADIUS * 1.2) + 0.5;
+            testZ[i] = Math.floor((random.nextDouble() * 2 - 1) * RADIUS * 1.2) + 0.5;
+        }
+        return new double[][]{testX, testZ};
+    }
+
+    private static PolygonKernel regularPolygon(int vertices) {
+        double[] xs = new double[vertices];
+        double[] zs = new double[vertices];
+        List<PolygonGeometry.Point2D> outline = regularOutline(vertices);
+        for (int i = 0; i < vertices; i++) {
+            xs[i] = outline.get(i).x;
+            zs[i] = outline.get(i).z;
+        }
+        PolygonKernel kernel = PolygonKernel.of(xs, zs);
+        assertNotNull(kernel);
+        return kernel;
+    }
+
+    private static List<PolygonGeometry.Point2D> regularOutline(int vertices) {
+        List<PolygonGeometry.Point2D> outline = new ArrayList<>();
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            outline.add(new PolygonGeometry.Point2D(RADIUS * Math.cos(angle), RADIUS * Math.sin(angle)));
+        }
+        return outline;
+    }
+}